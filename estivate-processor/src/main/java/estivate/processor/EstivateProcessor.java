@@ -0,0 +1,93 @@
+package estivate.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import estivate.processor.MapperGenerator.UnsupportedMappingException;
+
+/**
+ * <p>
+ * Generates a reflection free mapper for each class using Estivate
+ * annotations. The selectors are checked at build time, an invalid one fails
+ * the compilation.
+ * <p>
+ * Classes the generator does not handle (tables, private members...) are
+ * reported as a note and still mapped at runtime by the evaluator.
+ *
+ * @see estivate.core.generated.GeneratedMapper
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@SupportedAnnotationTypes("estivate.annotations.*")
+public class EstivateProcessor extends AbstractProcessor {
+
+    private final Set<String> processed = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        Set<TypeElement> targets = new LinkedHashSet<TypeElement>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element target = element.getKind().isClass() ? element : element.getEnclosingElement();
+                if (target.getKind() == ElementKind.CLASS) {
+                    targets.add((TypeElement) target);
+                }
+            }
+        }
+
+        for (TypeElement target : targets) {
+            String name = processingEnv.getElementUtils().getBinaryName(target).toString();
+            if (processed.add(name)) {
+                generate(target);
+            }
+        }
+
+        // other processors may use the annotations too
+        return false;
+    }
+
+    protected void generate(TypeElement target) {
+        MapperGenerator generator = new MapperGenerator(processingEnv, target);
+        try {
+            String source = generator.generate();
+            if (source == null) {
+                // errors already reported
+                return;
+            }
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(generator.getMapperName(), target);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (UnsupportedMappingException e) {
+            processingEnv.getMessager().printMessage(Kind.NOTE,
+                    target.getQualifiedName() + " is mapped at runtime: " + e.getMessage(), e.getElement());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "Cant write mapper of " + target.getQualifiedName() + ": " + e.getMessage(), target);
+        }
+    }
+
+}
@@ -0,0 +1,667 @@
+package estivate.processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+import org.jsoup.select.QueryParser;
+
+import estivate.core.generated.GeneratedMapper;
+
+/**
+ * <p>
+ * Writes the source of the {@link GeneratedMapper} of one class.
+ * <p>
+ * Annotations are read in the order of
+ * {@link estivate.core.ast.parser.EstivateParser}, and each member is
+ * evaluated as the runtime evaluator does: queries, reduce, convert then
+ * assignment.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+class MapperGenerator {
+
+    private static final String ANNOTATIONS = "estivate.annotations.";
+
+    private static final String INDENT = "        ";
+
+    /**
+     * Parse functions of {@link estivate.core.impl.PrimitiveConverter} by
+     * target type
+     */
+    private static final Map<String, String> PRIMITIVES = new HashMap<String, String>();
+    static {
+        PRIMITIVES.put("int", "parseInt");
+        PRIMITIVES.put("java.lang.Integer", "parseInt");
+        PRIMITIVES.put("java.lang.Number", "parseInt");
+        PRIMITIVES.put("char", "parseChar");
+        PRIMITIVES.put("java.lang.Character", "parseChar");
+        PRIMITIVES.put("byte", "parseByte");
+        PRIMITIVES.put("java.lang.Byte", "parseByte");
+        PRIMITIVES.put("boolean", "parseBool");
+        PRIMITIVES.put("java.lang.Boolean", "parseBool");
+        PRIMITIVES.put("float", "parseFloat");
+        PRIMITIVES.put("java.lang.Float", "parseFloat");
+        PRIMITIVES.put("double", "parseDouble");
+        PRIMITIVES.put("java.lang.Double", "parseDouble");
+        PRIMITIVES.put("long", "parseLong");
+        PRIMITIVES.put("java.lang.Long", "parseLong");
+        PRIMITIVES.put("short", "parseShort");
+        PRIMITIVES.put("java.lang.Short", "parseShort");
+        PRIMITIVES.put("java.math.BigDecimal", "parseBigDecimal");
+        PRIMITIVES.put("java.math.BigInteger", "parseBigInteger");
+    }
+
+    private final Elements elements;
+
+    private final Types types;
+
+    private final Messager messager;
+
+    private final TypeElement target;
+
+    private final String packageName;
+
+    private final String mapperSimpleName;
+
+    private final StringBuilder constants = new StringBuilder();
+
+    private final Map<String, String> queries = new HashMap<String, String>();
+
+    private final Map<String, String> converters = new HashMap<String, String>();
+
+    private boolean errors = false;
+
+    MapperGenerator(ProcessingEnvironment env, TypeElement target) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.messager = env.getMessager();
+        this.target = target;
+        this.packageName = elements.getPackageOf(target).getQualifiedName().toString();
+
+        String binaryName = elements.getBinaryName(target).toString();
+        this.mapperSimpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + GeneratedMapper.SUFFIX;
+    }
+
+    public String getMapperName() {
+        return packageName.isEmpty() ? mapperSimpleName : packageName + "." + mapperSimpleName;
+    }
+
+    /**
+     * @return the source of the mapper, null if errors were reported
+     * @throws UnsupportedMappingException
+     *             when the class has to be mapped at runtime
+     */
+    public String generate() throws UnsupportedMappingException {
+
+        checkTarget();
+
+        String targetName = target.getQualifiedName().toString();
+
+        // class queries
+        StringBuilder query = new StringBuilder();
+        // parallel lists need the plan
+        unsupported(target, "Table", "Column", "Parallel");
+        AnnotationMirror select = find(target, "Select");
+        if (select != null) {
+            query(query, INDENT, target, select, or(string(select, "select"), string(select, "value")));
+        }
+        AnnotationMirror classOptional = find(target, "Optional");
+        boolean optional = classOptional != null && bool(classOptional, "value");
+
+        // members, same order as DefaultMembersFinder
+        StringBuilder eval = new StringBuilder();
+        int memberCount = 0;
+        TypeElement type = target;
+        while (type != null && !type.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (member(eval, field, optional)) {
+                    memberCount++;
+                }
+            }
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(target.getEnclosedElements())) {
+            if (member(eval, method, optional)) {
+                memberCount++;
+            }
+        }
+
+        if (errors) {
+            return null;
+        }
+        if (memberCount == 0 && select == null) {
+            throw new UnsupportedMappingException(target, "nothing to map");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import org.jsoup.nodes.Document;\n");
+        sb.append("import org.jsoup.select.Elements;\n");
+        sb.append("import org.jsoup.select.Evaluator;\n");
+        sb.append("import org.jsoup.select.QueryParser;\n\n");
+        sb.append("import estivate.core.Accessors.Instantiator;\n");
+        sb.append("import estivate.core.ClassUtils;\n");
+        sb.append("import estivate.core.Converter;\n");
+        sb.append("import estivate.core.eval.lang.AttrReduceEvaluator;\n");
+        sb.append("import estivate.core.eval.lang.IsReduceEvaluator;\n");
+        sb.append("import estivate.core.eval.lang.SelectQueryEvaluator;\n");
+        sb.append("import estivate.core.eval.lang.TagNameReduceEvaluator;\n");
+        sb.append("import estivate.core.eval.lang.TextReduceEvaluator;\n");
+        sb.append("import estivate.core.eval.lang.ValReduceEvaluator;\n");
+        sb.append("import estivate.core.generated.GeneratedMapper;\n");
+        sb.append("import estivate.core.generated.GeneratedMappers;\n");
+        sb.append("import estivate.core.impl.PrimitiveConverter;\n");
+        sb.append("import estivate.core.plan.PlanCompiler;\n\n");
+        sb.append("/**\n");
+        sb.append(" * Mapper of {@link ").append(targetName).append("} generated by estivate-processor.\n");
+        sb.append(" */\n");
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\", \"unused\" })\n");
+        sb.append("public final class ").append(mapperSimpleName).append(" implements GeneratedMapper<")
+                .append(targetName).append("> {\n\n");
+        sb.append(constants);
+        sb.append("    public Elements query(Document document, Elements queryResult) {\n");
+        sb.append("        Elements q = queryResult;\n");
+        sb.append(query);
+        sb.append("        return q;\n");
+        sb.append("    }\n\n");
+        sb.append("    public ").append(targetName)
+                .append(" eval(Document document, Elements queryResult, PlanCompiler compiler) {\n");
+        sb.append("        ").append(targetName).append(" target = new ").append(targetName).append("();\n");
+        sb.append(eval);
+        sb.append("        return target;\n");
+        sb.append("    }\n\n");
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    private void checkTarget() throws UnsupportedMappingException {
+        if (target.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedMappingException(target, "abstract class");
+        }
+        if (!target.getTypeParameters().isEmpty()) {
+            throw new UnsupportedMappingException(target, "generic class");
+        }
+        NestingKind nesting = target.getNestingKind();
+        if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+            throw new UnsupportedMappingException(target, "local class");
+        }
+        if (nesting == NestingKind.MEMBER && !target.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedMappingException(target, "inner class is not static");
+        }
+        if (!isAccessible(target)) {
+            throw new UnsupportedMappingException(target, "private class");
+        }
+        boolean hasConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(target.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                hasConstructor = true;
+            }
+        }
+        if (!hasConstructor) {
+            throw new UnsupportedMappingException(target, "no accessible constructor without parameter");
+        }
+    }
+
+    /**
+     * Writes the evaluation of one member.
+     *
+     * @return false if the member is not mapped
+     */
+    private boolean member(StringBuilder sb, Element member, boolean classOptional)
+            throws UnsupportedMappingException {
+
+        String memberName = member.getSimpleName().toString();
+
+        boolean optional = false;
+        boolean expression = false;
+        StringBuilder queries = new StringBuilder();
+        String reduce = null;
+        boolean reduceList = false;
+        Object[] reduceArgs = new Object[0];
+        AnnotationMirror convert = null;
+
+        // same order as the annotation parsers
+        AnnotationMirror a = find(member, "Select");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            query(queries, INDENT + "    ", member, a, or(string(a, "select"), string(a, "value")));
+            expression = true;
+        }
+        unsupported(member, "Table", "Column");
+        a = find(member, "Is");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            query(queries, INDENT + "    ", member, a, string(a, "select"));
+            reduce = "IsReduceEvaluator.is";
+            reduceArgs = new Object[] { evaluator(member, a, string(a, "value")) };
+            expression = true;
+        }
+        a = find(member, "Attr");
+        if (a != null) {
+            query(queries, INDENT + "    ", member, a, string(a, "select"));
+            reduce = "AttrReduceEvaluator.attr";
+            reduceArgs = new Object[] { literal(string(a, "value")) };
+            expression = true;
+        }
+        convert = find(member, "Convert");
+        a = find(member, "TagName");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            query(queries, INDENT + "    ", member, a, string(a, "select"));
+            reduce = "TagNameReduceEvaluator.tagName";
+            reduceArgs = new Object[0];
+            expression = true;
+        }
+        a = find(member, "Text");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            query(queries, INDENT + "    ", member, a, string(a, "select"));
+            reduce = "TextReduceEvaluator.text";
+            reduceArgs = new Object[] { bool(a, "own") };
+            expression = true;
+        }
+        a = find(member, "Title");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            reduce = "TITLE";
+            expression = true;
+        }
+        a = find(member, "Val");
+        if (a != null) {
+            optional |= bool(a, "optional");
+            query(queries, INDENT + "    ", member, a, string(a, "select"));
+            reduce = "ValReduceEvaluator.val";
+            reduceArgs = new Object[0];
+            expression = true;
+        }
+        a = find(member, "Absolute");
+        boolean absolute = a != null && bool(a, "value");
+        a = find(member, "Optional");
+        if (a != null) {
+            optional |= bool(a, "value");
+        }
+
+        if (!expression) {
+            return false;
+        }
+
+        List<TypeMirror> valueTypes = new ArrayList<TypeMirror>();
+        String assign;
+        if (member.getKind() == ElementKind.FIELD) {
+            Element declaring = member.getEnclosingElement();
+            if (member.getModifiers().contains(Modifier.STATIC) || member.getModifiers().contains(Modifier.FINAL)) {
+                throw new UnsupportedMappingException(member, "static or final field '" + memberName + "'");
+            }
+            if (!isAccessible(member) || !isAccessible(declaring)) {
+                throw new UnsupportedMappingException(member, "field '" + memberName + "' not accessible");
+            }
+            valueTypes.add(member.asType());
+            assign = "target." + memberName + " = v0;";
+        } else {
+            ExecutableElement method = (ExecutableElement) member;
+            if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method)) {
+                throw new UnsupportedMappingException(member, "method '" + memberName + "' not accessible");
+            }
+            StringBuilder args = new StringBuilder();
+            for (VariableElement parameter : method.getParameters()) {
+                if (args.length() != 0) {
+                    args.append(", ");
+                }
+                args.append("v").append(valueTypes.size());
+                valueTypes.add(parameter.asType());
+            }
+            assign = "target." + memberName + "(" + args + ");";
+        }
+
+        sb.append("\n").append(INDENT).append("// ").append(memberName).append("\n");
+        sb.append(INDENT).append(optional || classOptional ? "try {\n" : "{\n");
+        sb.append(INDENT).append(absolute ? "    Elements q = new Elements(document);\n" : "    Elements q = queryResult;\n");
+        sb.append(queries);
+        for (int i = 0; i < valueTypes.size(); i++) {
+            TypeMirror type = valueTypes.get(i);
+            sb.append(INDENT).append("    ").append(type).append(" v").append(i).append(" = ")
+                    .append(value(member, type, reduce, reduceArgs, convert)).append(";\n");
+        }
+        sb.append(INDENT).append("    ").append(assign).append("\n");
+        if (optional || classOptional) {
+            sb.append(INDENT).append("} catch (RuntimeException e) {\n");
+            sb.append(INDENT).append("    // optional\n");
+        }
+        sb.append(INDENT).append("}\n");
+
+        return true;
+    }
+
+    /**
+     * Expression of one value: reduce then convert, as the runtime
+     * ConvertStep chosen for the type.
+     */
+    private String value(Element member, TypeMirror type, String reduce, Object[] reduceArgs,
+            AnnotationMirror convert) throws UnsupportedMappingException {
+
+        String raw = types.erasure(type).toString();
+
+        if (raw.equals("org.jsoup.nodes.Document")) {
+            return "document";
+        }
+        if (raw.equals("org.jsoup.select.Elements")) {
+            return "new Elements(q)";
+        }
+        if (raw.equals("org.jsoup.nodes.Element")) {
+            return "GeneratedMappers.single(q)";
+        }
+
+        boolean list = raw.equals("java.util.List");
+        TypeMirror item = type;
+        if (list) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if (arguments.size() != 1 || arguments.get(0).getKind() != TypeKind.DECLARED) {
+                throw new UnsupportedMappingException(member, "type " + type);
+            }
+            item = arguments.get(0);
+        } else if (type.getKind() != TypeKind.DECLARED && !type.getKind().isPrimitive()) {
+            throw new UnsupportedMappingException(member, "type " + type);
+        }
+        String itemRaw = types.erasure(item).toString();
+
+        String reduced = reduced(reduce, reduceArgs, list, member.getSimpleName().toString());
+
+        if (convert != null) {
+            return "(" + boxed(type) + ") " + converter(member, convert) + ".convert(" + reduced + ", " + raw
+                    + ".class, " + literal(string(convert, "format")) + ")";
+        }
+
+        if (reduce == null) {
+            // HTML to String
+            if (!list && raw.equals("java.lang.String")) {
+                return "q.toString()";
+            }
+            // recursive
+            TypeElement itemElement = (TypeElement) types.asElement(item);
+            if (isRecursive(itemElement)) {
+                if (!isAccessible(itemElement) || !itemElement.getTypeParameters().isEmpty()) {
+                    throw new UnsupportedMappingException(member, "type " + item);
+                }
+                return "GeneratedMappers." + (list ? "evalToList" : "eval") + "(document, q, " + itemRaw + ".class, compiler)";
+            }
+            throw new UnsupportedMappingException(member, "type " + type + " without reduce");
+        }
+
+        if (list) {
+            if (reduce.equals("TITLE")) {
+                throw new UnsupportedMappingException(member, "title as list");
+            }
+            if (PRIMITIVES.containsKey(itemRaw)) {
+                return "GeneratedMappers.<" + itemRaw + "> convertAll(" + reduced + ", PrimitiveConverter."
+                        + PRIMITIVES.get(itemRaw) + ")";
+            }
+            if (itemRaw.equals("java.lang.String")) {
+                return reduced;
+            }
+            throw new UnsupportedMappingException(member, "type " + type);
+        }
+
+        if (PRIMITIVES.containsKey(raw)) {
+            return "(" + boxed(type) + ") PrimitiveConverter." + PRIMITIVES.get(raw) + ".apply(" + reduced + ")";
+        }
+        if (raw.equals("java.lang.String")) {
+            return reduced;
+        }
+        throw new UnsupportedMappingException(member, "type " + type);
+    }
+
+    private String reduced(String reduce, Object[] reduceArgs, boolean list, String memberName) {
+        if (reduce == null) {
+            return "q";
+        }
+        if (reduce.equals("TITLE")) {
+            return "document.title()";
+        }
+        StringBuilder sb = new StringBuilder(reduce);
+        sb.append(list ? "List(q" : "(q");
+        for (Object arg : reduceArgs) {
+            sb.append(", ").append(arg);
+        }
+        if (!list) {
+            sb.append(", ").append(literal(memberName));
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * Writes a select query, its selector is parsed once in a constant.
+     */
+    private void query(StringBuilder sb, String indent, Element element, AnnotationMirror annotation,
+            String queryString) {
+        boolean first = bool(annotation, "first");
+        boolean last = bool(annotation, "last");
+        if (first && last) {
+            error(element, annotation, "Select cant be true for first() and last() a the same time");
+            return;
+        }
+        if (isBlank(queryString)) {
+            return;
+        }
+        String constant = evaluator(element, annotation, queryString);
+
+        sb.append(indent).append("q = SelectQueryEvaluator.select(null, q, ").append(constant).append(", ")
+                .append(literal(queryString)).append(", ")
+                .append(integer(annotation, "index")).append(", ").append(bool(annotation, "unique")).append(", ")
+                .append(first).append(", ").append(last).append(");\n");
+    }
+
+    /**
+     * Checks the selector, then declares its constant once.
+     *
+     * @return name of the constant
+     */
+    private String evaluator(Element element, AnnotationMirror annotation, String queryString) {
+        try {
+            QueryParser.parse(queryString);
+        } catch (RuntimeException e) {
+            error(element, annotation, "Invalid selector '" + queryString + "': " + e.getMessage());
+        }
+
+        String constant = queries.get(queryString);
+        if (constant == null) {
+            constant = "QUERY_" + queries.size();
+            queries.put(queryString, constant);
+            constants.append("    private static final Evaluator ").append(constant).append(" = QueryParser.parse(")
+                    .append(literal(queryString)).append(");\n\n");
+        }
+        return constant;
+    }
+
+    private String converter(Element member, AnnotationMirror convert) throws UnsupportedMappingException {
+        TypeMirror type = (TypeMirror) value(convert, "value");
+        String name = types.erasure(type).toString();
+        if (!isAccessible(types.asElement(type))) {
+            throw new UnsupportedMappingException(member, "converter " + name + " not accessible");
+        }
+        String converter = converters.get(name);
+        if (converter == null) {
+            String constant = "CONVERTER_" + converters.size();
+            // same as CustomConvertStep: one instance per conversion, unless thread safe
+            TypeElement threadSafe = elements.getTypeElement("estivate.core.Converter.ThreadSafe");
+            if (threadSafe != null && types.isAssignable(types.erasure(type), threadSafe.asType())) {
+                constants.append("    private static final Converter ").append(constant)
+                        .append(" = ClassUtils.newInstance(").append(name).append(".class);\n\n");
+                converter = constant;
+            } else {
+                constants.append("    private static final Instantiator<? extends Converter> ").append(constant)
+                        .append(" = ClassUtils.instantiator(").append(name).append(".class);\n\n");
+                converter = constant + ".newInstance()";
+            }
+            converters.put(name, converter);
+        }
+        return converter;
+    }
+
+    private void unsupported(Element element, String... annotations) throws UnsupportedMappingException {
+        for (String annotation : annotations) {
+            if (find(element, annotation) != null) {
+                throw new UnsupportedMappingException(element, "@" + annotation + " on " + element.getSimpleName());
+            }
+        }
+    }
+
+    private void error(Element element, AnnotationMirror annotation, String message) {
+        errors = true;
+        messager.printMessage(Kind.ERROR, message, element, annotation);
+    }
+
+    /**
+     * Same as EstivateParser.isRecursiveType
+     */
+    private boolean isRecursive(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        String name = type.getQualifiedName().toString();
+        return !(name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("org.jsoup."));
+    }
+
+    /**
+     * Tells if the generated mapper, in the package of the target, can use
+     * the element.
+     */
+    private boolean isAccessible(Element element) {
+        while (element != null && element.getKind() != ElementKind.PACKAGE) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    && !elements.getPackageOf(element).getQualifiedName().contentEquals(packageName)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private AnnotationMirror find(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(ANNOTATIONS + annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror annotation, String name) {
+        for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements
+                .getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private String string(AnnotationMirror annotation, String name) {
+        return (String) value(annotation, name);
+    }
+
+    private boolean bool(AnnotationMirror annotation, String name) {
+        return (Boolean) value(annotation, name);
+    }
+
+    private int integer(AnnotationMirror annotation, String name) {
+        return (Integer) value(annotation, name);
+    }
+
+    private static String or(String value1, String value2) {
+        return isBlank(value1) ? value2 : value1;
+    }
+
+    private static boolean isBlank(String word) {
+        return word == null || word.trim().length() == 0;
+    }
+
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c > 0x7e) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * The class, or one of its members, cant be mapped by a generated mapper.
+     */
+    @SuppressWarnings("serial")
+    static class UnsupportedMappingException extends Exception {
+
+        private final transient Element element;
+
+        UnsupportedMappingException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+
+        public Element getElement() {
+            return element;
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package estivate.processor;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import estivate.EstivateMapper;
+import estivate.core.generated.GeneratedMapper;
+import estivate.core.generated.GeneratedMappers;
+
+public class EstivateProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generated() throws Exception {
+
+        ClassLoader loader = compile("sample/Product.java", "sample/Vendor.java", "sample/UpperCaseConverter.java");
+
+        Class<?> product = loader.loadClass("sample.Product");
+
+        Assert.assertTrue(GeneratedMappers.find(product) instanceof GeneratedMapper);
+        Assert.assertNotNull(GeneratedMappers.find(loader.loadClass("sample.Product$Review")));
+        // private member, mapped at runtime
+        Assert.assertNull(GeneratedMappers.find(loader.loadClass("sample.Vendor")));
+        // parallel lists, mapped at runtime
+        Assert.assertNull(GeneratedMappers.find(loader.loadClass("sample.Product$Offer")));
+
+        EstivateMapper mapper = new EstivateMapper();
+
+        Object generated = mapper.map(read("/processor/u1.html"), product);
+
+        Assert.assertEquals("Catalog", field(generated, "title"));
+        Assert.assertEquals("Estivate mug", field(generated, "name"));
+        Assert.assertEquals("ESTIVATE MUG", field(generated, "upperName"));
+        Assert.assertEquals(12.5, field(generated, "price"));
+        Assert.assertEquals("/mug", field(generated, "link"));
+        Assert.assertEquals(true, field(generated, "available"));
+        Assert.assertEquals("span", field(generated, "stockTag"));
+        Assert.assertEquals(Arrays.asList("kitchen", "coffee"), field(generated, "tags"));
+        Assert.assertEquals(Arrays.asList(25, 33), field(generated, "sizes"));
+        Assert.assertEquals(3, field(generated, "quantity"));
+        Assert.assertEquals("kitchen", ((Element) field(generated, "firstTag")).text());
+        Assert.assertEquals("default", field(generated, "missing"));
+        Assert.assertTrue(((String) field(generated, "description")).contains("<b>full</b>"));
+        Assert.assertEquals(2, ((List<?>) field(generated, "reviews")).size());
+
+        // same mapping as the evaluator
+        mapper.setUseGeneratedMappers(false);
+
+        Object evaluated = mapper.map(read("/processor/u1.html"), product);
+
+        for (String name : Arrays.asList("title", "name", "upperName", "price", "link", "available", "stockTag",
+                "tags", "sizes", "quantity", "missing", "description")) {
+            Assert.assertEquals(name, field(evaluated, name), field(generated, name));
+        }
+        Object review = ((List<?>) field(generated, "reviews")).get(1);
+        Assert.assertEquals("Alice", field(review, "author"));
+        Assert.assertEquals(5, field(review, "note"));
+        Assert.assertEquals("Estivate mug", field(review, "product"));
+    }
+
+    @Test
+    public void nestedFromMapperCompiler() throws Exception {
+
+        ClassLoader loader = compile("sample/Product.java", "sample/Vendor.java", "sample/UpperCaseConverter.java");
+
+        EstivateMapper mapper = EstivateMapper.builder().useGeneratedMappers(true).build();
+
+        Object generated = mapper.map(read("/processor/u1.html"), loader.loadClass("sample.Product"));
+        Assert.assertNotNull(field(generated, "vendor"));
+
+        // the vendor, without generated mapper, is compiled by the mapper
+        Assert.assertEquals(1, mapper.getCompiler().getPlanCache().getMisses());
+    }
+
+    @Test
+    public void invalidSelector() throws Exception {
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+
+        Assert.assertFalse(task(diagnostics, "Invalid.java").call());
+
+        boolean reported = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    && diagnostic.getMessage(null).contains("Invalid selector 'div['")) {
+                reported = true;
+            }
+        }
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), reported);
+    }
+
+    protected ClassLoader compile(String... sources) throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), task(diagnostics, sources).call());
+
+        return new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, getClass().getClassLoader());
+    }
+
+    protected CompilationTask task(DiagnosticCollector<JavaFileObject> diagnostics, String... sources)
+            throws URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+
+        List<File> files = new ArrayList<File>();
+        for (String source : sources) {
+            files.add(new File(getClass().getResource("/processor/" + source).toURI()));
+        }
+
+        String classpath = location(EstivateMapper.class) + File.pathSeparator + location(Document.class);
+
+        CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-classpath", classpath, "-d", folder.getRoot().getPath()), null,
+                fileManager.getJavaFileObjectsFromFiles(files));
+        task.setProcessors(Arrays.asList(new EstivateProcessor()));
+        return task;
+    }
+
+    protected String location(Class<?> clazz) throws URISyntaxException {
+        return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    protected Document read(String path) throws Exception {
+        InputStream stream = getClass().getResourceAsStream(path);
+        try {
+            return org.jsoup.Jsoup.parse(stream, "UTF-8", "/");
+        } finally {
+            stream.close();
+        }
+    }
+
+    protected Object field(Object target, String name) throws Exception {
+        return target.getClass().getField(name).get(target);
+    }
+
+}
@@ -0,0 +1,10 @@
+package sample;
+
+import estivate.annotations.Text;
+
+public class Invalid {
+
+    @Text(select = "div[")
+    public String name;
+
+}
@@ -0,0 +1,95 @@
+package sample;
+
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import estivate.annotations.Absolute;
+import estivate.annotations.Attr;
+import estivate.annotations.Convert;
+import estivate.annotations.Is;
+import estivate.annotations.Optional;
+import estivate.annotations.Parallel;
+import estivate.annotations.Select;
+import estivate.annotations.TagName;
+import estivate.annotations.Text;
+import estivate.annotations.Title;
+import estivate.annotations.Val;
+
+@Select("#product")
+public class Product {
+
+    @Title
+    public String title;
+
+    @Text(select = "h1")
+    public String name;
+
+    @Convert(UpperCaseConverter.class)
+    @Text(select = "h1")
+    public String upperName;
+
+    @Text(select = ".price")
+    public double price;
+
+    @Attr(value = "href", select = "a.link")
+    public String link;
+
+    @Is(value = ".available", select = ".stock")
+    public boolean available;
+
+    @TagName(select = ".stock")
+    public String stockTag;
+
+    @Text(select = "ul.tags li")
+    public List<String> tags;
+
+    @Text(select = "ul.sizes li")
+    public List<Integer> sizes;
+
+    @Val(select = "input[name=qty]")
+    public int quantity;
+
+    @Select(value = "ul.tags li", first = true)
+    public Element firstTag;
+
+    @Optional
+    @Text(select = "li", unique = true)
+    public String missing = "default";
+
+    @Select(".vendor")
+    public Vendor vendor;
+
+    @Select(".review")
+    public List<Review> reviews;
+
+    public String description;
+
+    @Select(".description")
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public static class Review {
+
+        @Text(select = ".author")
+        public String author;
+
+        @Text(select = ".note")
+        public int note;
+
+        @Absolute
+        @Text(select = "h1")
+        public String product;
+
+    }
+
+    @Parallel
+    public static class Offer {
+
+        @Text(select = ".offer")
+        public String name;
+
+    }
+
+}
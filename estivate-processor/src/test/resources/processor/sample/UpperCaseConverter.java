@@ -0,0 +1,15 @@
+package sample;
+
+import estivate.core.Converter;
+
+public class UpperCaseConverter implements Converter {
+
+    public boolean canConvert(Object value, Class<?> targetType) {
+        return true;
+    }
+
+    public Object convert(Object value, Class<?> targetType, String format) {
+        return value.toString().toUpperCase();
+    }
+
+}
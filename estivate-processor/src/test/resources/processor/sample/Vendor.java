@@ -0,0 +1,17 @@
+package sample;
+
+import estivate.annotations.Text;
+
+/**
+ * Private member, mapped at runtime.
+ */
+public class Vendor {
+
+    @Text(select = ".name")
+    private String name;
+
+    public String getName() {
+        return name;
+    }
+
+}
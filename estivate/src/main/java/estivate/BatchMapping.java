@@ -0,0 +1,164 @@
+package estivate;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+import estivate.core.BatchExecutors;
+
+/**
+ * <p>
+ * Maps the documents of a batch on an executor. A document is read from the
+ * sources only when fewer than the max in flight documents are being mapped
+ * or wait for their turn to be handled.
+ * <p>
+ * Results are handled one at a time, in the order of the documents or as
+ * soon as mapped. They are handled under a lock rather than a monitor, which
+ * would pin a virtual thread blocked in the handler to its carrier.
+ *
+ * @author Benoit Theunissen
+ *
+ * @param <S>
+ *            type of the documents
+ * @param <T>
+ *            type of the targets
+ */
+abstract class BatchMapping<S, T> {
+
+    private final BatchOptions options;
+
+    private final BatchResult.Handler<T> handler;
+
+    private final Semaphore inFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Ordered results waiting for a previous one
+     */
+    private final Map<Integer, BatchResult<T>> pending = new HashMap<Integer, BatchResult<T>>();
+
+    /**
+     * Index of the next ordered result to handle
+     */
+    private int next = 0;
+
+    private RuntimeException handlerFailure;
+
+    BatchMapping(BatchOptions options, BatchResult.Handler<T> handler) {
+        this.options = options;
+        this.handler = handler;
+        this.inFlight = new Semaphore(options.getMaxInFlight());
+    }
+
+    /**
+     * Maps a document
+     */
+    protected abstract T map(S source) throws Exception;
+
+    /**
+     * Maps every document and waits until every result is handled.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting, documents already submitted
+     *             are still mapped
+     */
+    void run(Iterable<? extends S> sources) throws InterruptedException {
+        ExecutorService pool = null;
+        if (options.getExecutor() == null) {
+            pool = options.isVirtualThreads() ? BatchExecutors.newPerDocumentExecutor(options.getParallelism())
+                    : Executors.newFixedThreadPool(options.getParallelism());
+        }
+        Executor executor = pool != null ? pool : options.getExecutor();
+        try {
+            Iterator<? extends S> iterator = sources.iterator();
+            for (int index = 0;; index++) {
+                inFlight.acquire();
+                if (!iterator.hasNext()) {
+                    inFlight.release();
+                    break;
+                }
+                submit(executor, index, iterator.next());
+            }
+
+            // every result is handled
+            inFlight.acquire(options.getMaxInFlight());
+            inFlight.release(options.getMaxInFlight());
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        lock.lock();
+        try {
+            if (handlerFailure != null) {
+                throw handlerFailure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void submit(Executor executor, final int index, final S source) {
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    BatchResult<T> result = null;
+                    try {
+                        result = new BatchResult<T>(index, map(source), null);
+                    } catch (Exception e) {
+                        result = new BatchResult<T>(index, null, e);
+                    } catch (Error e) {
+                        result = new BatchResult<T>(index, null, e);
+                        throw e;
+                    } finally {
+                        complete(result);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            complete(new BatchResult<T>(index, null, e));
+        }
+    }
+
+    /**
+     * Handles the result, or the ones it was the turn of, and lets as many
+     * documents be read.
+     */
+    private void complete(BatchResult<T> result) {
+        lock.lock();
+        try {
+            if (!options.isOrdered()) {
+                handle(result);
+                return;
+            }
+            pending.put(result.getIndex(), result);
+            for (BatchResult<T> ready = pending.remove(next); ready != null; ready = pending.remove(next)) {
+                next++;
+                handle(ready);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void handle(BatchResult<T> result) {
+        try {
+            handler.handle(result);
+        } catch (RuntimeException e) {
+            if (handlerFailure == null) {
+                handlerFailure = e;
+            }
+        } finally {
+            inFlight.release();
+        }
+    }
+
+}
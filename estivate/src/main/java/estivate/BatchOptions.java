@@ -0,0 +1,88 @@
+package estivate;
+
+import java.util.concurrent.Executor;
+
+import lombok.Getter;
+
+/**
+ * Options of a {@link EstivateMapper#mapAll} batch.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public class BatchOptions {
+
+    /**
+     * Number of threads of the batch, when it has no executor. The number of
+     * processors by default.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of documents read and not handled yet, twice the
+     * parallelism by default. Ordered results waiting for a previous document
+     * are counted.
+     */
+    private int maxInFlight = 0;
+
+    /**
+     * Handle the results in the order of the documents, true by default.
+     * Otherwise they are handled as soon as mapped.
+     */
+    private boolean ordered = true;
+
+    /**
+     * Executor of the mappings, null for a pool of the batch, shut down at
+     * its end
+     */
+    private Executor executor;
+
+    /**
+     * Map each document on its own virtual thread, on Java 21 and later, when
+     * there is no executor. Up to max in flight documents are then mapped at
+     * once, and a blocking read doesnt hold a thread of the pool. Older JVMs
+     * use the pool of parallelism threads. False by default.
+     */
+    private boolean virtualThreads = false;
+
+    public static BatchOptions defaults() {
+        return new BatchOptions();
+    }
+
+    public BatchOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public BatchOptions maxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public BatchOptions ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    public BatchOptions executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public BatchOptions virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight > 0 ? maxInFlight : 2 * parallelism;
+    }
+
+}
@@ -0,0 +1,56 @@
+package estivate;
+
+import lombok.Getter;
+
+/**
+ * Result of one document of a {@link EstivateMapper#mapAll} batch: its target,
+ * or the failure of its reading or of its mapping.
+ *
+ * @author Benoit Theunissen
+ *
+ * @param <T>
+ *            type of the target
+ */
+@Getter
+public class BatchResult<T> {
+
+    /**
+     * Position of the document in the batch, from 0
+     */
+    private final int index;
+
+    /**
+     * The mapped target, null on failure
+     */
+    private final T value;
+
+    /**
+     * Failure of the document, null on success
+     */
+    private final Throwable error;
+
+    public BatchResult(int index, T value, Throwable error) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult(" + index + ", " + (error == null ? value : error) + ")";
+    }
+
+    /**
+     * Receives the results of a batch, one at a time.
+     */
+    public interface Handler<T> {
+
+        public void handle(BatchResult<T> result);
+
+    }
+
+}
@@ -0,0 +1,766 @@
+package estivate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import estivate.annotations.Parallel;
+import estivate.annotations.Select;
+import estivate.core.DocumentIndex;
+import estivate.core.MembersFinder;
+import estivate.core.SelectionCache;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.QueryAST;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.parser.EstivateParser;
+import estivate.core.ast.parser.EstivateParser.AnnotationParser;
+import estivate.core.ast.parser.EstivateParser.ClassParser;
+import estivate.core.ast.parser.EstivateParser.MemberParser;
+import estivate.core.eval.EstivateEvaluator;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ExpressionEvaluator;
+import estivate.core.eval.EstivateEvaluator.QueryEvaluator;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import estivate.core.eval.EvaluatorRegistry;
+import estivate.core.generated.GeneratedMapper;
+import estivate.core.generated.GeneratedMappers;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <ul>
+ * <li>parse members and call registered implementation</li>
+ * <li>compile the parsed AST into a cached mapping plan</li>
+ * <li>use the mapper generated by estivate-processor when there is one</li>
+ * <li>use dialect JSoup by default</li>
+ * <li>get members ordered to evaluate</li>
+ * <li>evaluate select elements</li>
+ * <li>evaluate reduce value</li>
+ * <li>converts value</li>
+ * <li>sets value to target</li>
+ * </ul>
+ * <p>
+ * A mapper from {@link #builder()} has its own copy of the parsers and
+ * evaluators, taken when built, and its own plans. Its settings cant change:
+ * its setters throw {@link UnsupportedOperationException}, and threads can
+ * share it. Only the mapper of the no-arg constructor has setters.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public class EstivateMapper {
+
+    @Getter
+    protected volatile String encoding = "UTF-8";
+
+    @Getter
+    protected volatile String baseURI = "/";
+
+    /**
+     * Use the mappers generated at build time by estivate-processor, classes
+     * without one are still mapped from their plan. They are not used by a
+     * mapper with a document index, a selection cache, a fork join pool, a
+     * parallel threshold of its own or parallel nested targets, nor by the
+     * asynchronous mappings, which all need the plan.
+     */
+    @Getter
+    protected volatile boolean useGeneratedMappers = true;
+
+    /**
+     * Answer the queries starting with an id, a class or a tag from an index
+     * of the document, built on its first use by each mapping. False by
+     * default.
+     */
+    @Getter
+    protected volatile boolean useDocumentIndex = false;
+
+    /**
+     * Maximum number of selections cached by a mapping, by root element and
+     * query. 0, the default, disables the cache.
+     */
+    @Getter
+    protected volatile int selectionCacheSize = 0;
+
+    /**
+     * Pool of the lists mapped in parallel, in chunks of their elements. Null,
+     * the default, maps only the lists of the {@link Parallel} classes in
+     * parallel, on the common pool.
+     */
+    @Getter
+    protected volatile ForkJoinPool forkJoinPool;
+
+    /**
+     * Lists smaller than this are mapped sequentially, unless their class sets
+     * its own {@link Parallel#threshold()}
+     */
+    @Getter
+    protected volatile int parallelThreshold = EstivateEvaluator.PARALLEL_THRESHOLD;
+
+    /**
+     * Map the nested targets of a target in parallel, on the fork join pool
+     * or else on the common pool, when it has several of them. They are
+     * assigned in order, once all mapped. False by default.
+     */
+    @Getter
+    protected volatile boolean parallelNested = false;
+
+    /**
+     * Hits and misses of the selection caches of the mappings
+     */
+    @Getter
+    protected final SelectionCache.Stats selectionCacheStats = new SelectionCache.Stats();
+
+    /**
+     * Parser, evaluators and plans of the mapper
+     */
+    @Getter
+    protected final PlanCompiler compiler;
+
+    /**
+     * Built by a {@link Builder}, its settings cant change
+     */
+    private final boolean built;
+
+    /**
+     * Mapper of the static parsers and evaluators, shared by default mappers
+     */
+    public EstivateMapper() {
+        this.compiler = PlanCompiler.DEFAULT;
+        this.built = false;
+    }
+
+    protected EstivateMapper(Builder builder) {
+        this.built = true;
+        this.encoding = builder.encoding;
+        this.baseURI = builder.baseURI;
+        this.useDocumentIndex = builder.useDocumentIndex;
+        this.selectionCacheSize = builder.selectionCacheSize;
+        this.forkJoinPool = builder.forkJoinPool;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.parallelNested = builder.parallelNested;
+        this.compiler = builder.compiler();
+        if (builder.useGeneratedMappers != null) {
+            this.useGeneratedMappers = builder.useGeneratedMappers;
+        } else {
+            // generated mappers dont know the custom parsers and evaluators
+            this.useGeneratedMappers = !builder.isCustomized();
+        }
+    }
+
+    public void setEncoding(String encoding) {
+        checkMutable();
+        this.encoding = encoding;
+    }
+
+    public void setBaseURI(String baseURI) {
+        checkMutable();
+        this.baseURI = baseURI;
+    }
+
+    public void setUseGeneratedMappers(boolean useGeneratedMappers) {
+        checkMutable();
+        this.useGeneratedMappers = useGeneratedMappers;
+    }
+
+    public void setUseDocumentIndex(boolean useDocumentIndex) {
+        checkMutable();
+        this.useDocumentIndex = useDocumentIndex;
+    }
+
+    public void setSelectionCacheSize(int selectionCacheSize) {
+        checkMutable();
+        this.selectionCacheSize = selectionCacheSize;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        checkMutable();
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        checkMutable();
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public void setParallelNested(boolean parallelNested) {
+        checkMutable();
+        this.parallelNested = parallelNested;
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             if the mapper was built, it is shared as is by the threads
+     *             mapping with it
+     */
+    private void checkMutable() {
+        if (built) {
+            throw new UnsupportedOperationException("Settings of a built mapper cant change, use its builder");
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    protected static final String PACKAGE_NAME = Select.class.getPackage().getName();
+
+    protected static final List<Class<?>> STANDARD_TARGET_TYPES = new ArrayList<Class<?>>();
+    static {
+        STANDARD_TARGET_TYPES.add(Document.class);
+        STANDARD_TARGET_TYPES.add(Elements.class);
+        STANDARD_TARGET_TYPES.add(Element.class);
+    }
+
+    public <T> T map(InputStream stream, Class<T> clazz) throws IOException {
+        Document doc = parseStream(stream);
+        log.debug("{}", doc);
+        return this.map(doc, clazz);
+    }
+
+    public <T> List<T> mapToList(InputStream stream, Class<T> clazz) throws IOException {
+        Document doc = parseStream(stream);
+        log.debug("{}", doc);
+        return this.mapToList(doc, clazz);
+    }
+
+    public Object map(InputStream stream, Type type) throws IOException {
+        Document doc = parseStream(stream);
+        log.debug("{}", doc);
+        return map(doc, type);
+    }
+
+    private Document parseStream(InputStream stream) throws IOException {
+        return Jsoup.parse(bufferize(stream), this.encoding, this.baseURI);
+    }
+
+    /**
+     * Workaround of JSoup stream parsing that fail on very rare byte configuration
+     * 
+     * @param inputStream
+     * @return new InputStream with datas get fetched
+     * @throws IOException
+     */
+    private InputStream bufferize(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int nRead;
+        byte[] data = new byte[1024];
+        while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
+            buffer.write(data, 0, nRead);
+        }
+        buffer.flush();
+        byte[] byteArray = buffer.toByteArray();
+
+        return new ByteArrayInputStream(byteArray);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T map(Document document, Class<T> clazz) {
+
+        GeneratedMapper<T> generated = generatedMapper(clazz);
+        if (generated != null) {
+            return generated.eval(document, generated.query(document, new Elements(document)), compiler);
+        }
+
+        MappingPlan plan = compiler.getPlan(clazz);
+
+        EvalContext context = buildEvalContext(document, plan);
+
+        return (T) EstivateEvaluator.eval(context, plan);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> mapToList(Document document, Class<T> clazz) {
+
+        GeneratedMapper<T> generated = generatedMapper(clazz);
+        if (generated != null) {
+            return GeneratedMappers.evalToList(generated, document, generated.query(document, new Elements(document)),
+                    compiler);
+        }
+
+        MappingPlan plan = compiler.getPlan(clazz);
+
+        EvalContext context = buildEvalContext(document, plan);
+
+        return (List<T>) EstivateEvaluator.evalToList(context, plan);
+    }
+
+    /**
+     * @return the generated mapper of the class, null if it has none or if
+     *         the settings of the mapper need the plan
+     */
+    protected <T> GeneratedMapper<T> generatedMapper(Class<T> clazz) {
+        if (!useGeneratedMappers || useDocumentIndex || selectionCacheSize > 0 || forkJoinPool != null
+                || parallelThreshold != EstivateEvaluator.PARALLEL_THRESHOLD || parallelNested) {
+            return null;
+        }
+        return GeneratedMappers.find(clazz);
+    }
+
+    public <T> MappingResult<T> tryMap(InputStream stream, Class<T> clazz) throws IOException {
+        return tryMap(parseStream(stream), clazz);
+    }
+
+    /**
+     * Maps the document without failing on the members that cant be mapped:
+     * the mapping goes on and their failures are returned with the target.
+     * Generated mappers are not used.
+     * 
+     * @param document
+     *            the document
+     * @param clazz
+     *            the target class
+     * @return the target and the failures of its members
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MappingResult<T> tryMap(Document document, Class<T> clazz) {
+        List<MappingError> errors = new ArrayList<MappingError>();
+        T value = null;
+        try {
+            MappingPlan plan = compiler.getPlan(clazz);
+
+            EvalContext context = newEvalContext(document, plan);
+            context.setErrors(errors);
+
+            value = (T) EstivateEvaluator.eval(EstivateEvaluator.buildEvalContext(context, plan), plan);
+        } catch (RuntimeException e) {
+            errors.add(MappingError.of("", null, e));
+        }
+        return new MappingResult<T>(value, errors);
+    }
+
+    /**
+     * Same as {@link #tryMap(Document, Class)} for a list of targets
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MappingResult<List<T>> tryMapToList(Document document, Class<T> clazz) {
+        List<MappingError> errors = new ArrayList<MappingError>();
+        List<T> value = null;
+        try {
+            MappingPlan plan = compiler.getPlan(clazz);
+
+            EvalContext context = newEvalContext(document, plan);
+            context.setErrors(errors);
+
+            value = (List<T>) EstivateEvaluator.evalToList(EstivateEvaluator.buildEvalContext(context, plan), plan);
+        } catch (RuntimeException e) {
+            errors.add(MappingError.of("", null, e));
+        }
+        return new MappingResult<List<T>>(value, errors);
+    }
+
+    /**
+     * Maps the stream on the executor, in two tasks: the parsing of the
+     * stream, then its mapping. Cancelling the future skips the tasks not
+     * started yet and stops the mapping before its next member. Generated
+     * mappers are not used.
+     *
+     * @param stream
+     *            the document, read by the first task
+     * @param clazz
+     *            the target class
+     * @param executor
+     *            runs the tasks
+     * @return the future target, failed with the IOException of the stream
+     *         or the failure of the mapping
+     */
+    public <T> CompletableFuture<T> mapAsync(InputStream stream, Class<T> clazz, Executor executor) {
+        return mapAsync(parseAsync(stream, executor), clazz, false, executor);
+    }
+
+    /**
+     * Same as {@link #mapAsync(InputStream, Class, Executor)} for a parsed
+     * document, mapped in one task
+     */
+    public <T> CompletableFuture<T> mapAsync(Document document, Class<T> clazz, Executor executor) {
+        return mapAsync(CompletableFuture.completedFuture(document), clazz, false, executor);
+    }
+
+    /**
+     * Same as {@link #mapAsync(InputStream, Class, Executor)} for a list of
+     * targets
+     */
+    public <T> CompletableFuture<List<T>> mapToListAsync(InputStream stream, Class<T> clazz, Executor executor) {
+        return mapAsync(parseAsync(stream, executor), clazz, true, executor);
+    }
+
+    /**
+     * Same as {@link #mapAsync(Document, Class, Executor)} for a list of
+     * targets
+     */
+    public <T> CompletableFuture<List<T>> mapToListAsync(Document document, Class<T> clazz, Executor executor) {
+        return mapAsync(CompletableFuture.completedFuture(document), clazz, true, executor);
+    }
+
+    private CompletableFuture<Document> parseAsync(final InputStream stream, Executor executor) {
+        return CompletableFuture.supplyAsync(new Supplier<Document>() {
+            public Document get() {
+                try {
+                    return parseStream(stream);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * Maps the parsed document in a task of its own, once parsed
+     */
+    private <R> CompletableFuture<R> mapAsync(final CompletableFuture<Document> parsed, final Class<?> clazz,
+            final boolean list, Executor executor) {
+        final CompletableFuture<R> result = new CompletableFuture<R>();
+
+        parsed.whenCompleteAsync(new BiConsumer<Document, Throwable>() {
+            @SuppressWarnings("unchecked")
+            public void accept(Document document, Throwable failure) {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else if (!result.isDone()) {
+                    try {
+                        result.complete((R) mapCancellable(document, clazz, list, result));
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            }
+        }, executor).whenComplete(new BiConsumer<Document, Throwable>() {
+            public void accept(Document document, Throwable failure) {
+                // not mapped, as rejected by the executor
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                }
+            }
+        });
+
+        // a parsing not started yet is skipped
+        result.whenComplete(new BiConsumer<R, Throwable>() {
+            public void accept(R value, Throwable failure) {
+                if (result.isCancelled()) {
+                    parsed.cancel(false);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Maps the document, until the future is cancelled
+     */
+    private Object mapCancellable(Document document, Class<?> clazz, boolean list, Future<?> cancellation) {
+        MappingPlan plan = compiler.getPlan(clazz);
+
+        EvalContext context = newEvalContext(document, plan);
+        context.setCancellation(cancellation);
+        EstivateEvaluator.buildEvalContext(context, plan);
+
+        return list ? EstivateEvaluator.evalToList(context, plan) : EstivateEvaluator.eval(context, plan);
+    }
+
+    /**
+     * Maps each stream of the batch on the threads of the options, see
+     * {@link #mapAll(Iterable, Class, BatchOptions, BatchResult.Handler)}.
+     *
+     * @return the results, in the order of the streams unless unordered
+     */
+    public <T> List<BatchResult<T>> mapAll(Iterable<? extends InputStream> streams, Class<T> clazz,
+            BatchOptions options) throws InterruptedException {
+        List<BatchResult<T>> results = new ArrayList<BatchResult<T>>();
+        mapAll(streams, clazz, options, collector(results));
+        return results;
+    }
+
+    /**
+     * Maps each stream of the batch on the threads of the options. A failing
+     * stream doesnt stop the batch, its failure is handled instead of its
+     * target. Streams are read from the iterable as the mappings go, and are
+     * not closed.
+     * <p>
+     * The class is compiled once, before the first stream is read.
+     *
+     * @param streams
+     *            the documents
+     * @param clazz
+     *            the target class
+     * @param options
+     *            the parallelism and the order of the results
+     * @param handler
+     *            receives the results, one at a time
+     * @throws InterruptedException
+     *             if interrupted while waiting for the mappings
+     */
+    public <T> void mapAll(Iterable<? extends InputStream> streams, final Class<T> clazz, BatchOptions options,
+            BatchResult.Handler<T> handler) throws InterruptedException {
+        compiler.getPlan(clazz);
+
+        new BatchMapping<InputStream, T>(options, handler) {
+            @Override
+            protected T map(InputStream stream) throws IOException {
+                return EstivateMapper.this.map(parseStream(stream), clazz);
+            }
+        }.run(streams);
+    }
+
+    /**
+     * Same as {@link #mapAll(Iterable, Class, BatchOptions)} for parsed
+     * documents
+     */
+    public <T> List<BatchResult<T>> mapAllDocuments(Iterable<? extends Document> documents, Class<T> clazz,
+            BatchOptions options) throws InterruptedException {
+        List<BatchResult<T>> results = new ArrayList<BatchResult<T>>();
+        mapAllDocuments(documents, clazz, options, collector(results));
+        return results;
+    }
+
+    /**
+     * Same as {@link #mapAll(Iterable, Class, BatchOptions, BatchResult.Handler)}
+     * for parsed documents
+     */
+    public <T> void mapAllDocuments(Iterable<? extends Document> documents, final Class<T> clazz,
+            BatchOptions options, BatchResult.Handler<T> handler) throws InterruptedException {
+        compiler.getPlan(clazz);
+
+        new BatchMapping<Document, T>(options, handler) {
+            @Override
+            protected T map(Document document) {
+                return EstivateMapper.this.map(document, clazz);
+            }
+        }.run(documents);
+    }
+
+    private static <T> BatchResult.Handler<T> collector(final List<BatchResult<T>> results) {
+        return new BatchResult.Handler<T>() {
+            public void handle(BatchResult<T> result) {
+                results.add(result);
+            }
+        };
+    }
+
+    /**
+     * Context of a mapping of the document, with its own document index and
+     * selection cache.
+     */
+    protected EvalContext buildEvalContext(Document document, MappingPlan plan) {
+        return EstivateEvaluator.buildEvalContext(newEvalContext(document, plan), plan);
+    }
+
+    /**
+     * Same as {@link #buildEvalContext(Document, MappingPlan)}, the class
+     * queries are not evaluated yet.
+     */
+    protected EvalContext newEvalContext(Document document, MappingPlan plan) {
+        EvalContext context = EstivateEvaluator.newEvalContext(document, new Elements(document), plan);
+        context.setCompiler(compiler);
+        if (useDocumentIndex) {
+            context.setDocumentIndex(new DocumentIndex(document));
+        }
+        if (selectionCacheSize > 0) {
+            context.setSelectionCache(new SelectionCache(selectionCacheSize, selectionCacheStats));
+        }
+        context.setForkJoinPool(forkJoinPool);
+        context.setParallelThreshold(parallelThreshold);
+        context.setParallelNested(parallelNested);
+        return context;
+    }
+
+    public Object map(Document document, Type type) throws IOException {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+
+            // Handle type parameter class
+            Class<?> classArgument = (Class<?>) parameterizedType.getActualTypeArguments()[0];
+
+            // Handle type class
+            Class<?> rowClass = (Class<?>) parameterizedType.getRawType();
+
+            if (Collection.class.isAssignableFrom(rowClass)) {
+                log.debug(rowClass.getCanonicalName() + " is a Collection type");
+
+                return this.mapToList(document, classArgument);
+            } else {
+                log.error(rowClass.getCanonicalName() + " is not a Collection type");
+
+                throw new IllegalArgumentException("Parameterized type not handled: " + rowClass.getCanonicalName());
+            }
+        } else {
+            return this.map(document, (Class<?>) type);
+        }
+    }
+
+    /**
+     * Builder of a mapper with its own copy of the current parsers and
+     * evaluators, plus the ones added to the builder.
+     */
+    public static class Builder {
+
+        private String encoding = "UTF-8";
+
+        private String baseURI = "/";
+
+        private Boolean useGeneratedMappers;
+
+        private boolean useDocumentIndex = false;
+
+        private int selectionCacheSize = 0;
+
+        private ForkJoinPool forkJoinPool;
+
+        private int parallelThreshold = EstivateEvaluator.PARALLEL_THRESHOLD;
+
+        private boolean parallelNested = false;
+
+        private final List<ClassParser> classParsers = new ArrayList<ClassParser>();
+
+        private final List<MemberParser> memberParsers = new ArrayList<MemberParser>();
+
+        private final List<AnnotationParser> annotationParsers = new ArrayList<AnnotationParser>();
+
+        private MembersFinder membersFinder;
+
+        private final EvaluatorRegistry registry = new EvaluatorRegistry();
+
+        protected Builder() {
+        }
+
+        public Builder encoding(String encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        public Builder baseURI(String baseURI) {
+            this.baseURI = baseURI;
+            return this;
+        }
+
+        /**
+         * Default to true, unless a parser or an evaluator is added.
+         */
+        public Builder useGeneratedMappers(boolean useGeneratedMappers) {
+            this.useGeneratedMappers = useGeneratedMappers;
+            return this;
+        }
+
+        public Builder useDocumentIndex(boolean useDocumentIndex) {
+            this.useDocumentIndex = useDocumentIndex;
+            return this;
+        }
+
+        public Builder selectionCacheSize(int selectionCacheSize) {
+            this.selectionCacheSize = selectionCacheSize;
+            return this;
+        }
+
+        public Builder forkJoinPool(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
+        public Builder parallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        public Builder parallelNested(boolean parallelNested) {
+            this.parallelNested = parallelNested;
+            return this;
+        }
+
+        public Builder classParser(ClassParser parser) {
+            classParsers.add(parser);
+            return this;
+        }
+
+        public Builder memberParser(MemberParser parser) {
+            memberParsers.add(parser);
+            return this;
+        }
+
+        /**
+         * The parser runs after the built-in ones
+         */
+        public Builder annotationParser(AnnotationParser parser) {
+            annotationParsers.add(parser);
+            return this;
+        }
+
+        public Builder membersFinder(MembersFinder membersFinder) {
+            this.membersFinder = membersFinder;
+            return this;
+        }
+
+        public Builder queryEvaluator(Class<? extends QueryAST> type, QueryEvaluator evaluator) {
+            registry.registerQuery(type, evaluator);
+            return this;
+        }
+
+        public Builder reduceEvaluator(Class<? extends ReduceAST> type, ReduceEvaluator evaluator) {
+            registry.registerReduce(type, evaluator);
+            return this;
+        }
+
+        public Builder expressionEvaluator(Class<? extends ExpressionAST> type, ExpressionEvaluator evaluator) {
+            registry.registerExpression(type, evaluator);
+            return this;
+        }
+
+        public EstivateMapper build() {
+            return new EstivateMapper(this);
+        }
+
+        protected boolean isCustomized() {
+            return !(classParsers.isEmpty() && memberParsers.isEmpty() && annotationParsers.isEmpty()
+                    && membersFinder == null && registry.isEmpty());
+        }
+
+        /**
+         * Compiler of a copy of the static registrations and of the builder
+         * ones
+         */
+        @SuppressWarnings("deprecation")
+        protected PlanCompiler compiler() {
+            EstivateParser defaults = EstivateParser.DEFAULT;
+
+            List<ClassParser> classes = new ArrayList<ClassParser>(defaults.getClassParsers());
+            classes.addAll(classParsers);
+            List<MemberParser> members = new ArrayList<MemberParser>(defaults.getMemberParsers());
+            members.addAll(memberParsers);
+            List<AnnotationParser> annotations = new ArrayList<AnnotationParser>(defaults.getAnnotationParsers());
+            annotations.addAll(annotationParsers);
+
+            EstivateParser parser = new EstivateParser(classes, members, annotations,
+                    membersFinder != null ? membersFinder : defaults.getMembersFinder());
+
+            EvaluatorRegistry evaluators = EstivateEvaluator.REGISTRY.copy();
+            evaluators.registerAll(registry);
+
+            return new PlanCompiler(parser, evaluators.immutableCopy(),
+                    Collections.unmodifiableList(new ArrayList<QueryEvaluator>(EstivateEvaluator.QUERY_EVALUATORS)),
+                    Collections.unmodifiableList(new ArrayList<ReduceEvaluator>(EstivateEvaluator.REDUCE_EVALUATORS)),
+                    Collections.unmodifiableList(
+                            new ArrayList<ExpressionEvaluator>(EstivateEvaluator.EXPRESSION_EVALUATORS)));
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package estivate;
+
+import lombok.Getter;
+
+/**
+ * Failure of a member during a {@link EstivateMapper#tryMap} mapping. Holds
+ * no reference to the document.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public class MappingError {
+
+    /**
+     * Path of the member from the mapped class, as
+     * <code>product.offers[2].price</code>
+     */
+    private final String memberPath;
+
+    /**
+     * The select query of the member, null if none
+     */
+    private final String selector;
+
+    private final String reason;
+
+    public MappingError(String memberPath, String selector, String reason) {
+        this.memberPath = memberPath;
+        this.selector = selector;
+        this.reason = reason;
+    }
+
+    public static MappingError of(String memberPath, String selector, Throwable cause) {
+        String reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return new MappingError(memberPath, selector, reason);
+    }
+
+    @Override
+    public String toString() {
+        return memberPath + (selector != null ? " '" + selector + "'" : "") + ": " + reason;
+    }
+
+}
@@ -0,0 +1,44 @@
+package estivate;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Result of a {@link EstivateMapper#tryMap} mapping: the target, filled as
+ * far as possible, and the failures of its members.
+ * 
+ * @author Benoit Theunissen
+ *
+ * @param <T>
+ *            type of the target
+ */
+@Getter
+public class MappingResult<T> {
+
+    /**
+     * The mapped target, null if it could not be created
+     */
+    private final T value;
+
+    private final List<MappingError> errors;
+
+    public MappingResult(T value, List<MappingError> errors) {
+        this.value = value;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return true without error
+     */
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "MappingResult(" + value + ", " + errors + ")";
+    }
+
+}
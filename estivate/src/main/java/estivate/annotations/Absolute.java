@@ -0,0 +1,24 @@
+package estivate.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Indicate that the select of this field or method starts from the root
+ * document instead of the current element, as for a list item. The value is
+ * the same for every target of the document, it is mapped once per document.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Target({ FIELD, METHOD })
+@Retention(RUNTIME)
+public @interface Absolute {
+
+    boolean value() default true;
+
+}
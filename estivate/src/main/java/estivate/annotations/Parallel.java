@@ -0,0 +1,30 @@
+package estivate.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Indicate that a list of this class is mapped in parallel, in chunks of its
+ * elements, on the fork join pool of the mapper or else on the common pool.
+ * The list keeps the document order. False maps the list sequentially even
+ * when the mapper has a pool.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@Target({ TYPE })
+@Retention(RUNTIME)
+public @interface Parallel {
+
+    boolean value() default true;
+
+    /**
+     * Lists smaller than this are mapped sequentially, negative to use the
+     * threshold of the mapper.
+     */
+    int threshold() default -1;
+
+}
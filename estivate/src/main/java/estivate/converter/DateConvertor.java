@@ -2,8 +2,8 @@ package estivate.converter;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import estivate.core.Converter;
 import estivate.utils.StringUtil;
@@ -16,9 +16,13 @@ import lombok.SneakyThrows;
  * @author Benoit Theunissen
  *@see SimpleDateFormat
  */
-public class DateConvertor implements Converter {
+public class DateConvertor implements Converter.ThreadSafe {
 
-    public static final Map<String, SimpleDateFormat> FORMATTERS = new HashMap<String, SimpleDateFormat>();
+    /**
+     * Formatters by format, a formatter is not thread safe and is cloned for
+     * each conversion
+     */
+    public static final Map<String, SimpleDateFormat> FORMATTERS = new ConcurrentHashMap<String, SimpleDateFormat>();
 
     public boolean canConvert(Object value, Class<?> targetType) {
         return targetType.isAssignableFrom(Date.class);
@@ -41,7 +45,7 @@ public class DateConvertor implements Converter {
             pattern = new SimpleDateFormat(format);
             FORMATTERS.put(format, pattern);
         }
-        return pattern;
+        return (SimpleDateFormat) pattern.clone();
     }
 
 }
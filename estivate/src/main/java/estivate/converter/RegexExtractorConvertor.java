@@ -1,9 +1,9 @@
 package estivate.converter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,9 +17,9 @@ import lombok.extern.slf4j.Slf4j;
  *
  */
 @Slf4j
-public class RegexExtractorConvertor implements Converter {
+public class RegexExtractorConvertor implements Converter.ThreadSafe {
 
-    public static final Map<String, Pattern> PATTERNS = new HashMap<String, Pattern>();
+    public static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<String, Pattern>();
 
     public boolean canConvert(Object value, Class<?> targetType) {
         return targetType.isAssignableFrom(int.class) || targetType.isAssignableFrom(int[].class)
@@ -14,7 +14,7 @@ import estivate.core.Converter;
  * @author Benoit Theunissen
  *
  */
-public class UrlParameterExtractor implements Converter {
+public class UrlParameterExtractor implements Converter.ThreadSafe {
 
     public boolean canConvert(Object value, Class<?> targetType) {
         return targetType.isAssignableFrom(int.class) || targetType.isAssignableFrom(String.class)
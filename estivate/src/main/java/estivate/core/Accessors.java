@@ -0,0 +1,180 @@
+package estivate.core;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Direct accessors of members, created once when the mapping plan is built
+ * instead of going through reflection on each assignment.
+ * <p>
+ * Fields are set through a {@link MethodHandle}, methods are invoked through
+ * a spread {@link MethodHandle}, and public constructors visible from Estivate
+ * get a {@link LambdaMetafactory} generated instantiator.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public abstract class Accessors {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class);
+
+    public interface Setter {
+        public void set(Object target, Object value);
+    }
+
+    public interface Invoker {
+        public void invoke(Object target, Object[] arguments);
+    }
+
+    public interface Instantiator<T> {
+        public T newInstance();
+    }
+
+    public static Setter setter(final Field field) {
+        final MethodHandle handle;
+        try {
+            field.setAccessible(true);
+            handle = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cant access field '" + field.getName() + "'", e);
+        }
+        return new Setter() {
+            public void set(Object target, Object value) {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw propagate(e);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "Setter(" + field.getName() + ")";
+            }
+        };
+    }
+
+    public static Invoker invoker(final Method method) {
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = lookup.unreflect(method).asFixedArity();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cant access method '" + method.getName() + "'", e);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        final MethodHandle spread = handle.asType(handle.type().generic())
+                .asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_TYPE);
+        return new Invoker() {
+            public void invoke(Object target, Object[] arguments) {
+                try {
+                    spread.invokeExact(target, arguments);
+                } catch (Throwable e) {
+                    throw propagate(e);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "Invoker(" + method.getName() + ")";
+            }
+        };
+    }
+
+    /**
+     * Instantiator of the constructor without parameter. A class without such
+     * constructor gets an instantiator failing on use.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Instantiator<T> instantiator(final Class<T> clazz) {
+        MethodHandle handle;
+        try {
+            Constructor<T> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            handle = lookup.unreflectConstructor(constructor);
+
+            if (isPublic(clazz) && Modifier.isPublic(constructor.getModifiers()) && isVisible(clazz)) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "newInstance",
+                            MethodType.methodType(Instantiator.class), INSTANTIATOR_TYPE, handle,
+                            MethodType.methodType(clazz));
+                    return (Instantiator<T>) site.getTarget().invoke();
+                } catch (Throwable e) {
+                    log.debug("no lambda instantiator for '{}': {}", clazz.getName(), e.toString());
+                }
+            }
+        } catch (final Exception e) {
+            return new Instantiator<T>() {
+                public T newInstance() {
+                    throw new RuntimeException("Cant create bean", e);
+                }
+            };
+        }
+
+        final MethodHandle generic = handle.asType(INSTANTIATOR_TYPE);
+        return new Instantiator<T>() {
+            public T newInstance() {
+                try {
+                    return (T) (Object) generic.invokeExact();
+                } catch (Throwable e) {
+                    throw new RuntimeException("Cant create bean", e);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "Instantiator(" + clazz.getName() + ")";
+            }
+        };
+    }
+
+    private static boolean isPublic(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generated lambdas link against the class loader of Estivate
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, Accessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException(e);
+    }
+
+}
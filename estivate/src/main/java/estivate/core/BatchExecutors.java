@@ -0,0 +1,36 @@
+package estivate.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * Executors of the batches of documents.
+ * <p>
+ * This class is replaced on Java 21 by its version of the multi-release jar,
+ * in <code>src/main/java21</code>, which runs each document on its own
+ * virtual thread. Both must keep the same methods.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class BatchExecutors {
+
+    /**
+     * @return true if documents run on virtual threads
+     */
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * @param parallelism
+     *            number of threads, when the JVM has no virtual threads
+     * @return an executor starting a virtual thread per document, or a pool of
+     *         threads on older JVMs
+     */
+    public static ExecutorService newPerDocumentExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+}
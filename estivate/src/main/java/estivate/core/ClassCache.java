@@ -0,0 +1,82 @@
+package estivate.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Thread safe cache of values computed once per class.
+ * <p>
+ * Values are attached to their class through a {@link ClassValue}: the cache
+ * holds no strong reference to the cached classes, so a value referencing its
+ * own class (and so its classloader) does not prevent a redeployed webapp from
+ * being collected.
+ *
+ * @author Benoit Theunissen
+ *
+ * @param <V>
+ *            type of the cached values
+ */
+public abstract class ClassCache<V> {
+
+    private volatile ClassValue<V> values = newClassValue();
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Compute the value of a class not cached yet.
+     *
+     * @param clazz
+     *            the class key
+     * @return the value to cache, never null
+     */
+    protected abstract V compute(Class<?> clazz);
+
+    public V get(Class<?> clazz) {
+        lookups.incrementAndGet();
+        return values.get(clazz);
+    }
+
+    /**
+     * Remove the cached value of a class, next {@link #get(Class)} computes it
+     * again.
+     *
+     * @param clazz
+     *            the class key
+     */
+    public void invalidate(Class<?> clazz) {
+        values.remove(clazz);
+    }
+
+    /**
+     * Remove all cached values.
+     */
+    public void clear() {
+        values = newClassValue();
+    }
+
+    public long getHits() {
+        return lookups.get() - misses.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ClassCache[hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private ClassValue<V> newClassValue() {
+        return new ClassValue<V>() {
+            @Override
+            protected V computeValue(Class<?> type) {
+                misses.incrementAndGet();
+                return compute(type);
+            }
+        };
+    }
+
+}
@@ -10,6 +10,9 @@ import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 
+import estivate.core.Accessors.Instantiator;
+import estivate.core.Accessors.Invoker;
+import estivate.core.Accessors.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -66,6 +69,49 @@ public abstract class ClassUtils {
         }
     }
 
+    /**
+     * Same as {@link #setValue(Field, Object, Object)} with the accessor of the
+     * field.
+     */
+    public static void setValue(Field field, Setter setter, Object target, Object value) {
+
+        log.debug("set value on field ['{}' => '{}']", value, field.getName());
+
+        try {
+
+            if (ClassUtils.isAssignableValue(field.getType(), value)) {
+
+                setter.set(target, value);
+
+            } else {
+                log.error("set value is not assignable with field '{}'", field.getName());
+                throw new IllegalArgumentException(
+                        "Cant set (" + value.getClass().getSimpleName() + ") '" + value.toString() + "' to ("
+                                + field.getType().getSimpleName() + ") '" + field.getName() + "'");
+            }
+        } catch (Exception e) {
+            log.error("set value is not assignable with field ", e);
+            throw new RuntimeException("Cant set (" + value.getClass().getSimpleName() + ") '" + value.toString()
+                    + "' to (" + field.getType().getSimpleName() + ") '" + field.getName() + "'", e);
+        }
+
+    }
+
+    /**
+     * Same as {@link #setValue(Method, Object, Object...)} with the accessor of
+     * the method.
+     */
+    public static void setValue(Method method, Invoker invoker, Object target, Object[] values) {
+
+        log.debug("set value by method [{} ({})]", method.getName(), values);
+
+        try {
+            invoker.invoke(target, values);
+        } catch (Exception e) {
+            throw new RuntimeException("Cant set " + values.toString() + " to " + method.getName() + "()", e);
+        }
+    }
+
     public static Type[] getMemberTypes(AccessibleObject member) {
         if (member instanceof Field) {
             Field field = (Field) member;
@@ -189,12 +235,22 @@ public abstract class ClassUtils {
         return "__unknown__";
     }
 
-    public static <T> T newInstance(Class<? extends T> clazz) {
-        try {
-            return clazz.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Cant create bean", e);
+    /**
+     * Instantiators of the classes, created on first instantiation.
+     */
+    private static final ClassCache<Instantiator<?>> instantiators = new ClassCache<Instantiator<?>>() {
+        @Override
+        protected Instantiator<?> compute(Class<?> clazz) {
+            return Accessors.instantiator(clazz);
         }
+    };
+
+    public static <T> T newInstance(Class<? extends T> clazz) {
+        return instantiator(clazz).newInstance();
+    }
 
+    @SuppressWarnings("unchecked")
+    public static <T> Instantiator<T> instantiator(Class<T> clazz) {
+        return (Instantiator<T>) instantiators.get(clazz);
     }
 }
@@ -22,7 +22,17 @@ public interface Converter {
      */
     Object convert(Object value, Class<?> targetType, String format);
 
-    public static final class VOID implements Converter {
+    /**
+     * <p>
+     * Converter without state, or safe for concurrent use.
+     * <p>
+     * One instance is shared by all the conversions of a member. Other
+     * converters are instantiated for each conversion.
+     */
+    public interface ThreadSafe extends Converter {
+    }
+
+    public static final class VOID implements ThreadSafe {
         public boolean canConvert(Object value, Class<?> targetType) {
             return false;
         }
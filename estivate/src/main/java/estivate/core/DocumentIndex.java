@@ -0,0 +1,531 @@
+package estivate.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * <p>
+ * Elements of a document by id, class and tag, in document order. The index
+ * is built in one pass on its first use, the document must not be modified
+ * while it is used.
+ * <p>
+ * Elements are numbered in pre-order: the descendants of an element are
+ * numbered from its number to its end number. An element is inside another
+ * one when its number is in the interval of the other, and the elements of an
+ * id, class or tag below an element are found by binary search of that
+ * interval.
+ * <p>
+ * Answers the queries whose last or leading compound selector starts with a
+ * simple selector ('#id', '.class' or 'tag'): only the indexed elements, or
+ * the descendants of the leading ones, are matched against the compiled
+ * query. Other queries are left to JSoup.
+ * <p>
+ * Thread safe, the threads of a parallel evaluation share the index of the
+ * document. It is built once, by the first one using it.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class DocumentIndex {
+
+    private final Document document;
+
+    /**
+     * Pre-order number of each element
+     */
+    private volatile IdentityHashMap<Element, Integer> numbers;
+
+    /**
+     * Elements by pre-order number
+     */
+    private Element[] elements;
+
+    /**
+     * Number of the last descendant by pre-order number
+     */
+    private int[] ends;
+
+    private Map<String, Postings> ids;
+
+    private Map<String, Postings> classes;
+
+    private Map<String, Postings> tags;
+
+    public DocumentIndex(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Elements matching the query from the root, in document order.
+     *
+     * @param query
+     *            the parsed query, see {@link Query#parse(String)}
+     * @param root
+     *            the element the query is evaluated from
+     * @param evaluator
+     *            the compiled query
+     * @return the matching elements, null if the root is not an element of
+     *         the document
+     */
+    public Elements select(Query query, Element root, Evaluator evaluator) {
+        build();
+
+        Integer number = numbers.get(root);
+        if (number == null) {
+            return null;
+        }
+        int start = number;
+        int end = ends[start];
+
+        Elements found = new Elements();
+
+        if (query.leading != null && !query.descendants) {
+            Postings leading = postings(query.leading);
+            for (int i = leading.lowerBound(start), to = leading.lowerBound(end + 1); i < to; i++) {
+                matches(evaluator, root, elements[leading.numbers[i]], found);
+            }
+            return found;
+        }
+
+        // the cheapest of the subject elements or the descendants of the
+        // leading ones
+        int subjectFrom = 0;
+        int subjectTo = 0;
+        int subjectCost = Integer.MAX_VALUE;
+        Postings subject = null;
+        if (query.subject != null) {
+            subject = postings(query.subject);
+            subjectFrom = subject.lowerBound(start);
+            subjectTo = subject.lowerBound(end + 1);
+            subjectCost = subjectTo - subjectFrom;
+        }
+
+        Postings leading = null;
+        int leadingFrom = 0;
+        int leadingTo = 0;
+        if (query.leading != null) {
+            leading = postings(query.leading);
+            leadingFrom = leading.lowerBound(start);
+            leadingTo = leading.lowerBound(end + 1);
+
+            int leadingCost = 0;
+            for (int i = leadingFrom, traversed = -1; i < leadingTo && leadingCost < subjectCost; i++) {
+                int candidate = leading.numbers[i];
+                if (traversed < 0 || candidate > ends[traversed]) {
+                    traversed = candidate;
+                    leadingCost += ends[candidate] - candidate;
+                }
+            }
+            if (leadingCost >= subjectCost) {
+                leading = null;
+            }
+        }
+
+        if (leading != null) {
+            for (int i = leadingFrom, traversed = -1; i < leadingTo; i++) {
+                int candidate = leading.numbers[i];
+                if (traversed < 0 || candidate > ends[traversed]) {
+                    traversed = candidate;
+                    for (int descendant = candidate + 1; descendant <= ends[candidate]; descendant++) {
+                        matches(evaluator, root, elements[descendant], found);
+                    }
+                }
+            }
+        } else {
+            for (int i = subjectFrom; i < subjectTo; i++) {
+                matches(evaluator, root, elements[subject.numbers[i]], found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Elements matching the query from each root, in one scan of the indexed
+     * elements below the roots. Each element is given to the root it is
+     * inside.
+     *
+     * @param query
+     *            the parsed query, see {@link Query#parse(String)}
+     * @param roots
+     *            elements in document order, none inside another one
+     * @param evaluator
+     *            the compiled query
+     * @return the matching elements by root, null if the roots are not such
+     *         elements of the document or the query has no simple selector
+     *         matched by every element
+     */
+    public Elements[] selectAll(Query query, Elements roots, Evaluator evaluator) {
+        Key key = query.getMatchKey();
+        int[] starts = disjointNumbers(roots);
+        if (key == null || starts == null) {
+            return null;
+        }
+
+        Elements[] found = new Elements[roots.size()];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = new Elements();
+        }
+        if (starts.length == 0) {
+            return found;
+        }
+
+        Postings postings = postings(key);
+        int root = 0;
+        for (int i = postings.lowerBound(starts[0]), to = postings.lowerBound(ends[starts[starts.length - 1]] + 1);
+                i < to; i++) {
+            int number = postings.numbers[i];
+            while (number > ends[starts[root]]) {
+                root++;
+            }
+            if (number >= starts[root]) {
+                matches(evaluator, roots.get(root), elements[number], found[root]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the numbers of the elements, null if one is not from the
+     *         document, is before the previous one or inside it
+     */
+    public int[] disjointNumbers(Elements roots) {
+        build();
+
+        int[] starts = new int[roots.size()];
+        for (int i = 0; i < starts.length; i++) {
+            Integer number = numbers.get(roots.get(i));
+            if (number == null || (i > 0 && number <= ends[starts[i - 1]])) {
+                return null;
+            }
+            starts[i] = number;
+        }
+        return starts;
+    }
+
+    /**
+     * @return true if the element is the ancestor or one of its descendants
+     */
+    public boolean isInside(Element element, Element ancestor) {
+        build();
+
+        Integer number = numbers.get(element);
+        Integer ancestorNumber = numbers.get(ancestor);
+        return number != null && ancestorNumber != null && ancestorNumber <= number
+                && number <= ends[ancestorNumber];
+    }
+
+    private static void matches(Evaluator evaluator, Element root, Element element, Elements found) {
+        if (evaluator.matches(root, element)) {
+            found.add(element);
+        }
+    }
+
+    protected Postings postings(Key key) {
+        Postings postings;
+        switch (key.kind) {
+        case ID:
+            postings = ids.get(key.key);
+            break;
+        case CLASS:
+            postings = classes.get(key.key);
+            break;
+        default:
+            postings = tags.get(key.key);
+            break;
+        }
+        return postings == null ? Postings.EMPTY : postings;
+    }
+
+    protected void build() {
+        if (numbers != null) {
+            return;
+        }
+        synchronized (this) {
+            if (numbers == null) {
+                index();
+            }
+        }
+    }
+
+    /**
+     * Indexes the document, the other fields are published by the last write
+     * of {@link #numbers}
+     */
+    private void index() {
+        final IdentityHashMap<Element, Integer> numbers = new IdentityHashMap<Element, Integer>();
+        final List<Element> elements = new ArrayList<Element>();
+        final Map<String, Postings> ids = new HashMap<String, Postings>();
+        final Map<String, Postings> classes = new HashMap<String, Postings>();
+        final Map<String, Postings> tags = new HashMap<String, Postings>();
+
+        NodeTraversor.traverse(new NodeVisitor() {
+            public void head(Node node, int depth) {
+                if (node instanceof Element) {
+                    Element element = (Element) node;
+                    int number = elements.size();
+                    elements.add(element);
+                    numbers.put(element, number);
+
+                    String id = element.id();
+                    if (id.length() > 0) {
+                        add(ids, id, number);
+                    }
+                    if (element.hasAttr("class")) {
+                        for (String className : element.classNames()) {
+                            add(classes, className.toLowerCase(Locale.ENGLISH), number);
+                        }
+                    }
+                    add(tags, element.normalName(), number);
+                }
+            }
+
+            public void tail(Node node, int depth) {
+            }
+        }, document);
+
+        // the last descendant of each element, children first
+        int[] ends = new int[elements.size()];
+        for (int number = ends.length - 1; number >= 0; number--) {
+            Elements children = elements.get(number).children();
+            ends[number] = children.isEmpty() ? number : ends[numbers.get(children.last())];
+        }
+
+        this.elements = elements.toArray(new Element[elements.size()]);
+        this.ends = ends;
+        this.ids = ids;
+        this.classes = classes;
+        this.tags = tags;
+        this.numbers = numbers;
+    }
+
+    private static void add(Map<String, Postings> index, String key, int number) {
+        Postings postings = index.get(key);
+        if (postings == null) {
+            postings = new Postings();
+            index.put(key, postings);
+        }
+        postings.add(number);
+    }
+
+    /**
+     * Sorted pre-order numbers of the elements of an id, a class or a tag
+     */
+    protected static final class Postings {
+
+        private static final Postings EMPTY = new Postings();
+
+        private int[] numbers = new int[2];
+
+        private int size;
+
+        private void add(int number) {
+            // an element is listed once under a class, whatever its case
+            if (size > 0 && numbers[size - 1] == number) {
+                return;
+            }
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+        /**
+         * @return index of the first number not lower than the given one
+         */
+        private int lowerBound(int number) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (numbers[middle] < number) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    public enum Kind {
+        ID, CLASS, TAG
+    }
+
+    /**
+     * A simple selector
+     */
+    public static final class Key {
+
+        private final Kind kind;
+
+        private final String key;
+
+        private Key(Kind kind, String key) {
+            this.kind = kind;
+            this.key = key;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the id, or the lower case class or tag name
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return (kind == Kind.ID ? "#" : kind == Kind.CLASS ? "." : "") + key;
+        }
+    }
+
+    /**
+     * The simple selectors of a query found in the index
+     */
+    public static final class Query {
+
+        /**
+         * Starts the first compound selector, null if its matches can not be
+         * found from it
+         */
+        private final Key leading;
+
+        /**
+         * The first compound selector is followed by a descendant or child
+         * combinator, matching elements are below the leading ones
+         */
+        private final boolean descendants;
+
+        /**
+         * Starts the last compound selector after a combinator, null if none
+         */
+        private final Key subject;
+
+        private Query(Key leading, boolean descendants, Key subject) {
+            this.leading = leading;
+            this.descendants = descendants;
+            this.subject = subject;
+        }
+
+        /**
+         * @return the simple selector every matching element matches, null
+         *         if none
+         */
+        public Key getMatchKey() {
+            if (subject != null) {
+                return subject;
+            }
+            return descendants ? null : leading;
+        }
+
+        /**
+         * @param query
+         *            a valid CSS query
+         * @return its simple selectors, null if the query can not be answered
+         *         from the index
+         */
+        public static Query parse(String query) {
+            String q = query.trim();
+            if (Selectors.isMutating(q)) {
+                return null;
+            }
+
+            // combinators out of brackets and parentheses
+            boolean descendants = false;
+            boolean siblings = false;
+            int subjectStart = 0;
+            int depth = 0;
+            char quote = 0;
+            for (int i = 0; i < q.length(); i++) {
+                char c = q.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '(' || c == '[') {
+                    depth++;
+                } else if (c == ')' || c == ']') {
+                    depth--;
+                } else if (depth == 0) {
+                    if (c == ',') {
+                        return null;
+                    }
+                    if (c == '+' || c == '~') {
+                        siblings = true;
+                        subjectStart = i + 1;
+                    } else if (c == '>' || Character.isWhitespace(c)) {
+                        descendants = true;
+                        subjectStart = i + 1;
+                    }
+                }
+            }
+
+            Key leading = siblings ? null : parseKey(q);
+            Key subject = descendants || siblings ? parseKey(q.substring(subjectStart).trim()) : null;
+            if (leading == null && subject == null) {
+                return null;
+            }
+            return new Query(leading, descendants, subject);
+        }
+
+        /**
+         * @return the simple selector starting the compound selector, null if
+         *         none
+         */
+        private static Key parseKey(String compound) {
+            Kind kind = Kind.TAG;
+            int i = 0;
+            if (compound.startsWith("#")) {
+                kind = Kind.ID;
+                i = 1;
+            } else if (compound.startsWith(".")) {
+                kind = Kind.CLASS;
+                i = 1;
+            }
+            int start = i;
+            while (i < compound.length() && isIdentifier(compound.charAt(i))) {
+                i++;
+            }
+            if (i == start || (kind == Kind.TAG && !Character.isLetter(compound.charAt(start)))) {
+                return null;
+            }
+            if (i < compound.length() && ".#[: >\t\n\r\f".indexOf(compound.charAt(i)) < 0) {
+                return null;
+            }
+
+            String key = compound.substring(start, i);
+            return new Key(kind, kind == Kind.ID ? key : key.toLowerCase(Locale.ENGLISH));
+        }
+
+        private static boolean isIdentifier(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-'
+                    || c == '_';
+        }
+
+        @Override
+        public String toString() {
+            return "Query(" + leading + (descendants ? " ... " : " ") + subject + ")";
+        }
+    }
+
+}
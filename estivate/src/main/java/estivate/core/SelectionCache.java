@@ -0,0 +1,139 @@
+package estivate.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+
+/**
+ * <p>
+ * Elements selected by a compiled query from a root element, kept for the
+ * time of one mapping. Roots and queries are compared by identity.
+ * <p>
+ * Holds at most a given number of selections, the least recently used one is
+ * dropped beyond. Cached selections are shared and must not be modified.
+ * <p>
+ * Not thread safe, a cache belongs to one evaluation. Its statistics can be
+ * shared by several caches.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class SelectionCache {
+
+    private final Stats stats;
+
+    private final LinkedHashMap<Key, Elements> selections;
+
+    public SelectionCache(final int maxEntries, Stats stats) {
+        this.stats = stats;
+        this.selections = new LinkedHashMap<Key, Elements>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Elements> eldest) {
+                if (size() > maxEntries) {
+                    SelectionCache.this.stats.evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached selection, null if none
+     */
+    public Elements get(Element root, Evaluator evaluator) {
+        Elements elements = selections.get(new Key(root, evaluator));
+        if (elements == null) {
+            stats.misses.incrementAndGet();
+        } else {
+            stats.hits.incrementAndGet();
+        }
+        return elements;
+    }
+
+    public void put(Element root, Evaluator evaluator, Elements elements) {
+        selections.put(new Key(root, evaluator), elements);
+    }
+
+    public int size() {
+        return selections.size();
+    }
+
+    private static final class Key {
+
+        private final Element root;
+
+        private final Evaluator evaluator;
+
+        private Key(Element root, Evaluator evaluator) {
+            this.root = root;
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(root) + System.identityHashCode(evaluator);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return root == other.root && evaluator == other.evaluator;
+        }
+    }
+
+    /**
+     * Thread safe statistics of selection caches
+     */
+    public static class Stats {
+
+        private final AtomicLong hits = new AtomicLong();
+
+        private final AtomicLong misses = new AtomicLong();
+
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getEvictions() {
+            return evictions.get();
+        }
+
+        /**
+         * @return hits over lookups, 0 without lookup
+         */
+        public double getHitRatio() {
+            long hits = this.hits.get();
+            long lookups = hits + misses.get();
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        public void reset() {
+            hits.set(0);
+            misses.set(0);
+            evictions.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return "SelectionCache.Stats[hits=" + getHits() + ", misses=" + getMisses() + ", evictions="
+                    + getEvictions() + "]";
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package estivate.core;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+/**
+ * <p>
+ * Compiled CSS selectors. A selector string is parsed once into a JSoup
+ * {@link Evaluator}, shared by every AST using the same string.
+ * <p>
+ * Compiled evaluators are stateless and can be used by concurrent
+ * evaluations.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public abstract class Selectors {
+
+    /**
+     * Beyond this size selectors are compiled without being cached
+     */
+    public static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentMap<String, Evaluator> cache = new ConcurrentHashMap<String, Evaluator>();
+
+    /**
+     * Compiles a selector.
+     *
+     * @param query
+     *            the CSS query
+     * @return the compiled selector
+     * @throws IllegalArgumentException
+     *             if the query is not a valid selector
+     */
+    public static Evaluator compile(String query) {
+        Evaluator evaluator = cache.get(query);
+        if (evaluator == null) {
+            try {
+                evaluator = QueryParser.parse(query);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid selector '" + query + "': " + e.getMessage(), e);
+            }
+            if (cache.size() < MAX_CACHED) {
+                Evaluator previous = cache.putIfAbsent(query, evaluator);
+                if (previous != null) {
+                    evaluator = previous;
+                }
+            }
+        }
+        return evaluator;
+    }
+
+    /**
+     * Compiles ':has(query)', elements having a descendant matching the query.
+     */
+    public static Evaluator compileHas(String query) {
+        return compile(":has(" + query + ")");
+    }
+
+    /**
+     * @return true if evaluating the query modifies the document, as
+     *         ':matchText' does
+     */
+    public static boolean isMutating(String query) {
+        return query.toLowerCase(Locale.ENGLISH).contains(":matchtext");
+    }
+
+    /**
+     * Splits a query before its last compound selector, when a descendant or
+     * child combinator precedes it: 'div#main > p .price' is 'div#main > p',
+     * then '.price' below.
+     *
+     * @param query
+     *            a valid CSS query
+     * @return the split query, null if the query has no such combinator, or
+     *         has a ','
+     */
+    public static Split split(String query) {
+        String q = query.trim();
+
+        // last run of combinators out of brackets and parentheses
+        int runStart = -1;
+        int runEnd = -1;
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(' || c == '[') {
+                depth++;
+            } else if (c == ')' || c == ']') {
+                depth--;
+            } else if (depth == 0) {
+                if (c == ',') {
+                    return null;
+                }
+                if (" \t\n\r\f>+~".indexOf(c) >= 0) {
+                    if (runEnd != i) {
+                        runStart = i;
+                    }
+                    runEnd = i + 1;
+                }
+            }
+        }
+        if (runStart <= 0 || runEnd >= q.length()) {
+            return null;
+        }
+
+        String combinator = q.substring(runStart, runEnd).trim();
+        if (combinator.length() > 1 || combinator.equals("+") || combinator.equals("~")) {
+            return null;
+        }
+        return new Split(q.substring(0, runStart).trim(), combinator.equals(">"), q.substring(runEnd));
+    }
+
+    /**
+     * A query split before its last compound selector
+     */
+    public static final class Split {
+
+        private final String prefix;
+
+        private final boolean child;
+
+        private final String last;
+
+        private Split(String prefix, boolean child, String last) {
+            this.prefix = prefix;
+            this.child = child;
+            this.last = last;
+        }
+
+        /**
+         * @return the query before the combinator
+         */
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * @return true for a child combinator, false for a descendant one
+         */
+        public boolean isChild() {
+            return child;
+        }
+
+        /**
+         * @return the last compound selector
+         */
+        public String getLast() {
+            return last;
+        }
+    }
+
+    public static void clearCache() {
+        cache.clear();
+    }
+
+}
@@ -15,4 +15,14 @@ public class EstivateAST extends ExpressionsAST {
 
     protected Class<?> targetRawClass;
 
+    /**
+     * Map the lists of the target in parallel, null to let the mapper decide
+     */
+    protected Boolean parallel;
+
+    /**
+     * Minimum size of a parallel list, negative for the one of the mapper
+     */
+    protected int parallelThreshold = -1;
+
 }
@@ -0,0 +1,59 @@
+package estivate.core.ast;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Placeholder of the AST of a nested class, resolved on first access.
+ * <p>
+ * Shared or self referencing types, such as menu trees, are parsed once and
+ * their references point to the same cached AST instead of recursing.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@EqualsAndHashCode(of = "targetClass")
+public class EstivateASTRef {
+
+    @Getter
+    protected final Class<?> targetClass;
+
+    protected final Resolver resolver;
+
+    private volatile EstivateAST ast;
+
+    public EstivateASTRef(Class<?> targetClass, Resolver resolver) {
+        this.targetClass = targetClass;
+        this.resolver = resolver;
+    }
+
+    public static EstivateASTRef of(EstivateAST ast) {
+        EstivateASTRef ref = new EstivateASTRef(ast.getTargetRawClass(), null);
+        ref.ast = ast;
+        return ref;
+    }
+
+    public EstivateAST get() {
+        EstivateAST result = ast;
+        if (result == null) {
+            result = resolver.resolve(targetClass);
+            ast = result;
+        }
+        return result;
+    }
+
+    public boolean isResolved() {
+        return ast != null;
+    }
+
+    @Override
+    public String toString() {
+        return "EstivateASTRef(" + targetClass.getName() + ")";
+    }
+
+    public interface Resolver {
+        public EstivateAST resolve(Class<?> clazz);
+    }
+
+}
@@ -13,6 +13,11 @@ public abstract class ExpressionAST extends NodeAST {
 
     protected ConverterAST converter;
 
+    /**
+     * Queries start from the root document
+     */
+    protected boolean absolute = false;
+
     /**
      * Once optional was set as true for this expressions, then other parse pass
      * cant change it back to false.
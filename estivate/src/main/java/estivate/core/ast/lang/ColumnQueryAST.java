@@ -0,0 +1,52 @@
+package estivate.core.ast.lang;
+
+import java.util.regex.Pattern;
+
+import org.jsoup.select.Evaluator;
+
+import estivate.core.Selectors;
+import estivate.core.ast.QueryAST;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ColumnQueryAST extends QueryAST {
+
+    protected String havingExpr;
+
+    /**
+     * Headers matching the having expression
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    protected Evaluator havingEvaluator;
+
+    /**
+     * Headers containing an element matching the having expression
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    protected Evaluator hasHavingEvaluator;
+
+    protected String columnName;
+
+    protected Pattern regex;
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the expression is not a valid selector
+     */
+    public void setHavingExpr(String havingExpr) {
+        this.havingExpr = havingExpr;
+        this.havingEvaluator = Selectors.compile(havingExpr);
+        this.hasHavingEvaluator = Selectors.compileHas(havingExpr);
+    }
+
+}
@@ -0,0 +1,42 @@
+package estivate.core.ast.lang;
+
+import org.jsoup.select.Evaluator;
+
+import estivate.core.Selectors;
+import estivate.core.ast.ReduceAST;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class IsReduceAST extends ReduceAST {
+
+    protected String is;
+
+    /**
+     * The is expression compiled once
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    protected Evaluator isEvaluator;
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the expression is not a valid selector
+     */
+    public void setIs(String is) {
+        this.is = is;
+        this.isEvaluator = Selectors.compile(is);
+    }
+
+}
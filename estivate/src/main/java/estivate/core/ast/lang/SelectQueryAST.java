@@ -0,0 +1,57 @@
+package estivate.core.ast.lang;
+
+import org.jsoup.select.Evaluator;
+
+import estivate.core.DocumentIndex;
+import estivate.core.Selectors;
+import estivate.core.ast.QueryAST;
+import estivate.utils.StringUtil;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class SelectQueryAST extends QueryAST {
+
+	protected String queryString;
+
+	/**
+	 * The query string compiled once, null if blank
+	 */
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	protected Evaluator evaluator;
+
+	/**
+	 * Leading simple selector of the query, null if it can not be answered
+	 * from a {@link DocumentIndex}
+	 */
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	protected DocumentIndex.Query indexQuery;
+
+	protected int index = -1;
+
+	protected boolean unique = false;
+
+	protected boolean first = false;
+
+	protected boolean last = false;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *			 if the query is not a valid selector
+	 */
+	public void setQueryString(String queryString) {
+		this.queryString = queryString;
+		this.evaluator = StringUtil.isBlank(queryString) ? null : Selectors.compile(queryString);
+		this.indexQuery = StringUtil.isBlank(queryString) ? null : DocumentIndex.Query.parse(queryString);
+	}
+
+}
@@ -0,0 +1,40 @@
+package estivate.core.ast.lang;
+
+import java.lang.reflect.Type;
+
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.EstivateASTRef;
+import estivate.core.ast.ValueAST;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class SimpleValueAST extends ValueAST {
+
+	protected Type type;
+
+	protected Class<?> rawClass;
+
+	/**
+	 * Raw class of the list items for a value list, the raw class otherwise.
+	 */
+	protected Class<?> targetRawClass;
+
+	protected boolean isValueList = false;
+
+	/**
+	 * Null when the target class cant be mapped recursively.
+	 */
+	protected EstivateASTRef astRef;
+
+	public EstivateAST getAst() {
+		return astRef == null ? null : astRef.get();
+	}
+
+	public void setAst(EstivateAST ast) {
+		this.astRef = ast == null ? null : EstivateASTRef.of(ast);
+	}
+}
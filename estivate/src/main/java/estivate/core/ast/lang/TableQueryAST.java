@@ -0,0 +1,33 @@
+package estivate.core.ast.lang;
+
+import org.jsoup.select.Evaluator;
+
+import estivate.core.Selectors;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class TableQueryAST extends SelectQueryAST {
+
+    String rowSelector;
+
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    Evaluator rowEvaluator;
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the row selector is not valid
+     */
+    public void setRowSelector(String rowSelector) {
+        this.rowSelector = rowSelector;
+        this.rowEvaluator = Selectors.compile(rowSelector);
+    }
+
+}
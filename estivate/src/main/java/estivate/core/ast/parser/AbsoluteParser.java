@@ -0,0 +1,33 @@
+package estivate.core.ast.parser;
+
+import java.lang.annotation.Annotation;
+
+import estivate.annotations.Absolute;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.parser.EstivateParser.AnnotationParser;
+import estivate.utils.AnnotationsUtils;
+
+/**
+ * Parse {@link Absolute} annotation
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+public class AbsoluteParser implements AnnotationParser {
+
+    public static final AbsoluteParser INSTANCE = new AbsoluteParser();
+
+    public static final Class<? extends Annotation> TYPE = Absolute.class;
+
+    public void parseAnnotation(EstivateAST ast, Annotation[] annotations) {
+    }
+
+    public void parseAnnotation(ExpressionAST ast, Annotation[] annotations) {
+        Absolute annotation = (Absolute) AnnotationsUtils.find(annotations, TYPE);
+        if (annotation != null) {
+            ast.setAbsolute(annotation.value());
+        }
+    }
+
+}
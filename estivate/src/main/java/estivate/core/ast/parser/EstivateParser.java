@@ -0,0 +1,414 @@
+package estivate.core.ast.parser;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import estivate.core.ClassCache;
+import estivate.core.ClassUtils;
+import estivate.core.MembersFinder;
+import estivate.core.ast.EmptyReduceAST;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.EstivateASTRef;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.FieldExpressionAST;
+import estivate.core.ast.MethodExpressionAST;
+import estivate.core.ast.lang.ListValueAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.impl.DefaultMembersFinder;
+import estivate.core.plan.PlanCompiler;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Parses the annotations of a class into an {@link EstivateAST}.
+ * <p>
+ * {@link #DEFAULT} reads the static registrations on each parse, a
+ * registration clears its cache and the plans of {@link PlanCompiler#DEFAULT}.
+ * Other instances work on their own copy of the parsers, with their own cache.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public class EstivateParser {
+
+    protected static final List<ClassParser>      classParsers      = new CopyOnWriteArrayList<ClassParser>();
+    protected static final List<MemberParser>     memberParsers     = new CopyOnWriteArrayList<MemberParser>();
+    protected static final List<AnnotationParser> annotationParsers = new CopyOnWriteArrayList<AnnotationParser>();
+
+    protected static MembersFinder membersFinder = new DefaultMembersFinder();
+
+    /**
+     * Parser of the static registrations
+     */
+    public static final EstivateParser DEFAULT = new EstivateParser() {
+        @Override
+        public List<ClassParser> getClassParsers() {
+            return Collections.unmodifiableList(classParsers);
+        }
+
+        @Override
+        public List<MemberParser> getMemberParsers() {
+            return Collections.unmodifiableList(memberParsers);
+        }
+
+        @Override
+        public List<AnnotationParser> getAnnotationParsers() {
+            return Collections.unmodifiableList(annotationParsers);
+        }
+
+        @Override
+        public MembersFinder getMembersFinder() {
+            return membersFinder;
+        }
+    };
+
+    private final List<ClassParser> classes;
+
+    private final List<MemberParser> members;
+
+    private final List<AnnotationParser> annotations;
+
+    private final MembersFinder finder;
+
+    /**
+     * AST of already parsed classes.
+     */
+    private final ClassCache<EstivateAST> cache = new ClassCache<EstivateAST>() {
+        @Override
+        protected EstivateAST compute(Class<?> clazz) {
+            return newAST(clazz);
+        }
+    };
+
+    private final EstivateASTRef.Resolver resolver = new EstivateASTRef.Resolver() {
+        public EstivateAST resolve(Class<?> clazz) {
+            return getAST(clazz);
+        }
+    };
+
+    private EstivateParser() {
+        this.classes = null;
+        this.members = null;
+        this.annotations = null;
+        this.finder = null;
+    }
+
+    /**
+     * Parser of a copy of the given parsers, the built-in class and member
+     * parsers are bound to the new parser.
+     */
+    public EstivateParser(List<ClassParser> classParsers, List<MemberParser> memberParsers,
+            List<AnnotationParser> annotationParsers, MembersFinder membersFinder) {
+        List<ClassParser> classes = new ArrayList<ClassParser>();
+        for (ClassParser parser : classParsers) {
+            classes.add(parser == cParser ? newClassParser(this) : parser);
+        }
+        List<MemberParser> members = new ArrayList<MemberParser>();
+        for (MemberParser parser : memberParsers) {
+            if (parser == fieldParser) {
+                parser = newFieldParser(this);
+            } else if (parser == methodParser) {
+                parser = newMethodParser(this);
+            }
+            members.add(parser);
+        }
+        this.classes = Collections.unmodifiableList(classes);
+        this.members = Collections.unmodifiableList(members);
+        this.annotations = Collections.unmodifiableList(new ArrayList<AnnotationParser>(annotationParsers));
+        this.finder = membersFinder;
+    }
+
+    public List<ClassParser> getClassParsers() {
+        return classes;
+    }
+
+    public List<MemberParser> getMemberParsers() {
+        return members;
+    }
+
+    public List<AnnotationParser> getAnnotationParsers() {
+        return annotations;
+    }
+
+    public MembersFinder getMembersFinder() {
+        return finder;
+    }
+
+    /**
+     * Parse the class once, then returns the cached AST.
+     * 
+     * @param clazz
+     *            the target class
+     * @return the shared AST of the class, must not be modified
+     */
+    public EstivateAST getAST(Class<?> clazz) {
+        return cache.get(clazz);
+    }
+
+    public EstivateAST newAST(Class<?> clazz) {
+        EstivateAST ast = new EstivateAST();
+
+        for (ClassParser parser : getClassParsers()) {
+            parser.parseClass(ast, clazz);
+        }
+
+        log.debug("AST of '{}' is {}", clazz.toString(), ast);
+
+        return ast;
+    }
+
+    public ClassCache<EstivateAST> getASTCache() {
+        return cache;
+    }
+
+    /**
+     * @see #getAST(Class)
+     */
+    public static EstivateAST parse(Class<?> clazz) {
+        return DEFAULT.getAST(clazz);
+    }
+
+    public static EstivateAST parseWithoutCache(Class<?> clazz) {
+        return DEFAULT.newAST(clazz);
+    }
+
+    public static void invalidate(Class<?> clazz) {
+        DEFAULT.cache.invalidate(clazz);
+    }
+
+    public static void clearCache() {
+        DEFAULT.cache.clear();
+    }
+
+    public static ClassCache<EstivateAST> getCache() {
+        return DEFAULT.cache;
+    }
+
+    /**
+     * Adds a class parser to {@link #DEFAULT}, then clears the parsed ASTs
+     * and the plans compiled from them.
+     */
+    public static synchronized void registerClassParser(ClassParser parser) {
+        classParsers.add(parser);
+        PlanCompiler.clearCache();
+    }
+
+    /**
+     * @see #registerClassParser(ClassParser)
+     */
+    public static synchronized void registerMemberParser(MemberParser parser) {
+        memberParsers.add(parser);
+        PlanCompiler.clearCache();
+    }
+
+    /**
+     * @see #registerClassParser(ClassParser)
+     */
+    public static synchronized void registerAnnotationParser(AnnotationParser parser) {
+        annotationParsers.add(parser);
+        PlanCompiler.clearCache();
+    }
+
+    public static ClassParser cParser = newClassParser(DEFAULT);
+
+    public static MemberParser fieldParser = newFieldParser(DEFAULT);
+
+    public static MemberParser methodParser = newMethodParser(DEFAULT);
+
+    /**
+     * Parser of the class annotations and of each of its members
+     */
+    public static ClassParser newClassParser(final EstivateParser parser) {
+        return new ClassParser() {
+
+            public void parseClass(EstivateAST ast, Class<?> clazz) {
+
+                ast.setTargetType(clazz);
+                ast.setTargetRawClass(ClassUtils.rawType(clazz));
+
+                for (AnnotationParser annotationParser : parser.getAnnotationParsers()) {
+                    annotationParser.parseAnnotation(ast, clazz.getAnnotations());
+                }
+
+                List<AccessibleObject> list = parser.getMembersFinder().list(clazz);
+                for (AccessibleObject member : list) {
+                    for (MemberParser memberParser : parser.getMemberParsers()) {
+                        memberParser.parseMember(ast, member);
+                    }
+                }
+
+            }
+        };
+    }
+
+    public static SimpleValueAST parseType(ExpressionAST ast, Type type) {
+        return parseType(ast, type, DEFAULT.resolver);
+    }
+
+    /**
+     * @param resolver
+     *            resolver of the AST of a nested class
+     */
+    public static SimpleValueAST parseType(ExpressionAST ast, Type type, EstivateASTRef.Resolver resolver) {
+        SimpleValueAST value = new SimpleValueAST();
+
+        Class<?> rawType = ClassUtils.rawType(type);
+
+        boolean isValueList = rawType.equals(List.class);
+
+        value.setType(type);
+        value.setRawClass(rawType);
+        value.setValueList(isValueList);
+
+        if (isValueList) {
+            Class<?>[] typeArguments = ClassUtils.typeArguments(value.getType());
+            if (typeArguments.length != 1) {
+                throw new IllegalArgumentException("Cant handle such generic type: " + value.getType().toString());
+            }
+
+            value.setTargetRawClass(ClassUtils.rawType(typeArguments[0]));
+
+        } else {
+            value.setTargetRawClass(rawType);
+        }
+
+        // nested AST are parsed on first evaluation
+        if (isRecursiveType(value.getTargetRawClass())) {
+            value.setAstRef(new EstivateASTRef(value.getTargetRawClass(), resolver));
+        }
+
+        return value;
+    }
+
+    /**
+     * Tells if the evaluator can map a class recursively as a nested POJO.
+     * JDK, JSoup, primitives, arrays, enums and abstract types cant.
+     * 
+     * @param clazz
+     *            the target class
+     * @return true if the class gets an AST of its own
+     */
+    public static boolean isRecursiveType(Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz.isArray() || clazz.isEnum() || clazz.isInterface()
+                || Modifier.isAbstract(clazz.getModifiers())) {
+            return false;
+        }
+        String name = clazz.getName();
+        return !(name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("org.jsoup."));
+    }
+
+    /**
+     * Parser of the annotations of a field
+     */
+    public static MemberParser newFieldParser(final EstivateParser parser) {
+        return new MemberParser() {
+
+            public void parseMember(EstivateAST ast, AccessibleObject member) {
+                if (member instanceof Field) {
+                    Field field = (Field) member;
+
+                    FieldExpressionAST fieldAST = new FieldExpressionAST();
+                    fieldAST.setField(field);
+
+                    for (AnnotationParser annotationParser : parser.getAnnotationParsers()) {
+                        annotationParser.parseAnnotation(fieldAST, field.getAnnotations());
+                    }
+
+                    if (!isEmptyExpression(fieldAST)) {
+                        fieldAST.setValue(parseType(fieldAST, field.getGenericType(), parser.resolver));
+
+                        ast.getExpressions().add(fieldAST);
+                    }
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Parser of the annotations of a method, each of its parameters is a
+     * value
+     */
+    public static MemberParser newMethodParser(final EstivateParser parser) {
+        return new MemberParser() {
+
+            public void parseMember(EstivateAST ast, AccessibleObject member) {
+                if (member instanceof Method) {
+                    Method method = (Method) member;
+
+                    MethodExpressionAST methodAST = new MethodExpressionAST();
+                    methodAST.setMethod(method);
+
+                    for (AnnotationParser annotationParser : parser.getAnnotationParsers()) {
+                        annotationParser.parseAnnotation(methodAST, method.getAnnotations());
+                    }
+
+                    if (!isEmptyExpression(methodAST)) {
+                        ListValueAST list = new ListValueAST();
+
+                        for (Type type : method.getGenericParameterTypes()) {
+                            list.getValues().add(parseType(methodAST, type, parser.resolver));
+                        }
+
+                        methodAST.setValues(list);
+
+                        ast.getExpressions().add(methodAST);
+                    }
+                }
+            }
+
+        };
+    }
+
+    private static boolean isEmptyExpression(ExpressionAST exp) {
+        return exp.getReduce() instanceof EmptyReduceAST && exp.getQueries().isEmpty();
+    }
+
+    static {
+        classParsers.add(cParser);
+        memberParsers.add(fieldParser);
+        memberParsers.add(methodParser);
+
+        // selects
+        annotationParsers.add(SelectParser.INSTANCE);
+        annotationParsers.add(TableParser.INSTANCE);
+        annotationParsers.add(ColumnParser.INSTANCE);
+
+        // reduces
+        annotationParsers.add(IsParser.INSTANCE);
+        annotationParsers.add(AttrParser.INSTANCE);
+        annotationParsers.add(CustomConvertorParser.INSTANCE);
+        annotationParsers.add(TagNameParser.INSTANCE);
+        annotationParsers.add(TextParser.INSTANCE);
+        annotationParsers.add(TitleParser.INSTANCE);
+        annotationParsers.add(ValParser.INSTANCE);
+        annotationParsers.add(AbsoluteParser.INSTANCE);
+        annotationParsers.add(ParallelParser.INSTANCE);
+        // optional after all for overriding
+        annotationParsers.add(OptionalParser.INSTANCE);
+    }
+
+    public interface ClassParser {
+        public void parseClass(EstivateAST ast, Class<?> clazz);
+    }
+
+    public interface MemberParser {
+        public void parseMember(EstivateAST ast, AccessibleObject member);
+    }
+
+    public interface AnnotationParser {
+        public void parseAnnotation(EstivateAST ast, Annotation[] annotations);
+
+        public void parseAnnotation(ExpressionAST ast, Annotation[] annotations);
+    }
+
+}
@@ -0,0 +1,34 @@
+package estivate.core.ast.parser;
+
+import java.lang.annotation.Annotation;
+
+import estivate.annotations.Parallel;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.parser.EstivateParser.AnnotationParser;
+import estivate.utils.AnnotationsUtils;
+
+/**
+ * Parse {@link Parallel} annotation
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class ParallelParser implements AnnotationParser {
+
+    public static final ParallelParser INSTANCE = new ParallelParser();
+
+    public static final Class<? extends Annotation> TYPE = Parallel.class;
+
+    public void parseAnnotation(EstivateAST ast, Annotation[] annotations) {
+        Parallel annotation = (Parallel) AnnotationsUtils.find(annotations, TYPE);
+        if (annotation != null) {
+            ast.setParallel(annotation.value());
+            ast.setParallelThreshold(annotation.threshold());
+        }
+    }
+
+    public void parseAnnotation(ExpressionAST ast, Annotation[] annotations) {
+    }
+
+}
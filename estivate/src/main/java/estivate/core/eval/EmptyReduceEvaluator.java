@@ -10,7 +10,7 @@ public class EmptyReduceEvaluator implements ReduceEvaluator{
     public static final EmptyReduceEvaluator INSTANCE = new EmptyReduceEvaluator();
     
     public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST valueAST) {
-        context.getValue().put(valueAST, context.getQueryResult());
+        context.setValue(valueAST, context.getQueryResult());
     }
 
 }
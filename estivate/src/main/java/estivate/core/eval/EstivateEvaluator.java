@@ -0,0 +1,947 @@
+package estivate.core.eval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import estivate.MappingError;
+import estivate.annotations.Parallel;
+import estivate.core.DocumentIndex;
+import estivate.core.SelectionCache;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.ExpressionsAST;
+import estivate.core.ast.FieldExpressionAST;
+import estivate.core.ast.MethodExpressionAST;
+import estivate.core.ast.QueryAST;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.lang.TableQueryEvaluator.TableIndex;
+import estivate.core.plan.ExpressionStep;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import estivate.core.plan.QueryStep;
+import estivate.core.plan.ReduceStep;
+import estivate.core.plan.SelectBatch;
+import estivate.core.plan.ValueStep;
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Evaluates {@link MappingPlan} compiled from {@link EstivateAST}.
+ * 
+ * @see PlanCompiler
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public class EstivateEvaluator {
+
+    /**
+     * Default minimum size of a parallel list
+     */
+    public static final int PARALLEL_THRESHOLD = 1000;
+
+    public static Object eval(EvalContext context, EstivateAST ast) {
+        return eval(context, context.getCompiler().getPlan(ast));
+    }
+
+    /**
+     * Evaluates the plan on a new target. The context is restored on return.
+     * 
+     * @param context
+     *            the context of the evaluation
+     * @param plan
+     *            the plan of the target
+     * @return the new target
+     */
+    public static Object eval(EvalContext context, MappingPlan plan) {
+
+        Object target = plan.newInstance();
+
+        Object parentTarget = context.getTarget();
+        Object[] parentValues = context.getValues();
+        ValueStep[] parentValueSteps = context.getValueSteps();
+        boolean parentOptional = context.isOptional();
+        String parentPath = context.getPath();
+        try {
+            context.setTarget(target);
+            context.setOptional(plan.isOptional());
+            context.setValues(new Object[plan.getSlotCount()]);
+            if (context.getErrors() != null) {
+                context.setPath(memberPath(context, context.getMemberName()));
+            }
+
+            evalExpressions(context, plan.getExpressions(), plan.getSelectBatch());
+        } finally {
+            context.setTarget(parentTarget);
+            context.setValues(parentValues);
+            context.setValueSteps(parentValueSteps);
+            context.setOptional(parentOptional);
+            context.setPath(parentPath);
+        }
+
+        return target;
+    }
+
+    public static List<?> evalToList(EvalContext context, EstivateAST ast) {
+        return evalToList(context, context.getCompiler().getPlan(ast));
+    }
+
+    /**
+     * Evaluates the plan on a new target for each element of the current
+     * query result. The context is restored on return.
+     * <p>
+     * A list as large as the threshold is evaluated in chunks on the fork join
+     * pool of the context, or of the common pool for a {@link Parallel} plan,
+     * and keeps the order of the elements.
+     * 
+     * @param context
+     *            the context of the evaluation
+     * @param plan
+     *            the plan of the targets
+     * @return the new targets
+     */
+    public static List<?> evalToList(EvalContext context, MappingPlan plan) {
+
+        Elements elements = context.getQueryResult();
+
+        Object[] results = new Object[elements.size()];
+
+        // first queries of all items at once
+        Elements[][] selected = plan.getSelectBatch() == null || context.getDocumentIndex() == null ? null
+                : plan.getSelectBatch().selectAll(elements, context.getDocumentIndex(), context.getSelectionCache());
+
+        ForkJoinPool pool = parallelPool(context, plan, results.length);
+        if (pool == null) {
+            evalItems(context, plan, selected, results, 0, results.length);
+        } else {
+            evalItems(context, plan, selected, results, pool);
+        }
+
+        return new ArrayList<Object>(Arrays.asList(results));
+    }
+
+    /**
+     * @return the pool of a parallel evaluation of the list, null to evaluate
+     *         it sequentially
+     */
+    private static ForkJoinPool parallelPool(EvalContext context, MappingPlan plan, int size) {
+        Boolean parallel = plan.getParallel();
+        if (Boolean.FALSE.equals(parallel)) {
+            return null;
+        }
+        ForkJoinPool pool = context.getForkJoinPool();
+        if (pool == null) {
+            if (parallel == null) {
+                return null;
+            }
+            pool = ForkJoinPool.commonPool();
+        }
+        int threshold = plan.getParallelThreshold() >= 0 ? plan.getParallelThreshold()
+                : context.getParallelThreshold();
+        return size < 2 || size < threshold ? null : pool;
+    }
+
+    /**
+     * Evaluates the items from the first index to the second one, exclusive.
+     */
+    private static void evalItems(EvalContext context, MappingPlan plan, Elements[][] selected, Object[] results,
+            int from, int to) {
+
+        Elements elements = context.getQueryResult();
+
+        Object parentTarget = context.getTarget();
+        Object[] parentValues = context.getValues();
+        ValueStep[] parentValueSteps = context.getValueSteps();
+        boolean parentOptional = context.isOptional();
+        String parentMemberName = context.getMemberName();
+        String parentPath = context.getPath();
+        String listPath = context.getErrors() == null ? null : memberPath(context, parentMemberName);
+        try {
+            // each value is set before being read, items can share the frame
+            context.setValues(new Object[plan.getSlotCount()]);
+
+            // one query result reused by items, copied when assigned
+            Elements itemResult = new Elements(1);
+
+            for (int i = from; i < to; i++) {
+                Element element = elements.get(i);
+
+                Object target = plan.newInstance();
+
+                itemResult.clear();
+                itemResult.add(element);
+
+                context.setTarget(target);
+                context.setOptional(plan.isOptional());
+                context.setMemberName(plan.getTargetRawClass().getSimpleName());
+                context.setQueryResult(itemResult);
+                if (listPath != null) {
+                    context.setPath(listPath + "[" + i + "]");
+                }
+
+                if (selected != null) {
+                    evalExpressions(context, plan.getExpressions(), selected[i]);
+                } else {
+                    evalExpressions(context, plan.getExpressions(), plan.getSelectBatch());
+                }
+
+                results[i] = target;
+            }
+        } finally {
+            context.setTarget(parentTarget);
+            context.setValues(parentValues);
+            context.setValueSteps(parentValueSteps);
+            context.setOptional(parentOptional);
+            context.setMemberName(parentMemberName);
+            context.setQueryResult(elements);
+            context.setPath(parentPath);
+        }
+    }
+
+    /**
+     * Evaluates the items in chunks on the pool, each one with its own copy of
+     * the context. The failure of the first failing item is thrown, once every
+     * chunk is done.
+     */
+    private static void evalItems(EvalContext context, MappingPlan plan, Elements[][] selected, Object[] results,
+            ForkJoinPool pool) {
+
+        int chunk = Math.max(1, results.length / (pool.getParallelism() * 4));
+
+        final List<ItemsTask> tasks = new ArrayList<ItemsTask>();
+        for (int from = 0; from < results.length; from += chunk) {
+            tasks.add(new ItemsTask(forkContext(context), plan, selected, results, from,
+                    Math.min(results.length, from + chunk)));
+        }
+
+        RecursiveAction all = new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        };
+        if (ForkJoinTask.getPool() == pool) {
+            // nested list, stays in the pool of the current task
+            all.invoke();
+        } else {
+            pool.invoke(all);
+        }
+
+        for (ItemsTask task : tasks) {
+            if (task.failure != null) {
+                throw task.failure;
+            }
+            if (context.getErrors() != null) {
+                context.getErrors().addAll(task.context.getErrors());
+            }
+        }
+    }
+
+    /**
+     * Copy of the context for a chunk of items: the invariants, the selection
+     * cache and the errors, which are not thread safe, are not shared.
+     */
+    private static EvalContext forkContext(EvalContext context) {
+        return context.toBuilder()//
+                .invariants(new IdentityHashMap<ExpressionStep, Object[]>())//
+                .selectionCache(null)//
+                .errors(context.getErrors() == null ? null : new ArrayList<MappingError>())//
+                .build();
+    }
+
+    /**
+     * Chunk of the items of a parallel list
+     */
+    private static class ItemsTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EvalContext context;
+
+        private final MappingPlan plan;
+
+        private final Elements[][] selected;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private RuntimeException failure;
+
+        private ItemsTask(EvalContext context, MappingPlan plan, Elements[][] selected, Object[] results, int from,
+                int to) {
+            this.context = context;
+            this.plan = plan;
+            this.selected = selected;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                evalItems(context, plan, selected, results, from, to);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+    }
+
+    public static EvalContext buildEvalContext(Document document, Elements queryResult, EstivateAST ast) {
+        return buildEvalContext(document, queryResult, PlanCompiler.plan(ast));
+    }
+
+    public static EvalContext buildEvalContext(Document document, Elements queryResult, MappingPlan plan) {
+        return buildEvalContext(newEvalContext(document, queryResult, plan), plan);
+    }
+
+    /**
+     * Evaluates the class queries of the plan on a new context.
+     * 
+     * @param context
+     *            a context from
+     *            {@link #newEvalContext(Document, Elements, MappingPlan)}
+     * @param plan
+     *            the plan of the target
+     * @return the context
+     */
+    public static EvalContext buildEvalContext(EvalContext context, MappingPlan plan) {
+        evalQuery(context, plan.getQueries());
+        return context;
+    }
+
+    /**
+     * Context of a nested evaluation, the class queries of the plan are not
+     * evaluated.
+     */
+    public static EvalContext newEvalContext(Document document, Elements queryResult, MappingPlan plan) {
+        return new EvalContext.EvalContextBuilder()//
+                .document(document)//
+                .queryResult(queryResult)//
+                .optional(plan.isOptional())//
+                .values(new Object[plan.getSlotCount()])//
+                .build();
+    }
+
+    public static void evalExpressions(EvalContext context, ExpressionsAST ast) {
+        evalExpressions(context, context.getCompiler().compileExpressionSteps(ast.getExpressions()));
+    }
+
+    public static void evalExpressions(EvalContext context, ExpressionStep[] expressions) {
+        evalExpressions(context, expressions, (Elements[]) null);
+    }
+
+    /**
+     * @param batch
+     *            first select queries of the expressions, evaluated at once,
+     *            can be null
+     */
+    public static void evalExpressions(EvalContext context, ExpressionStep[] expressions, SelectBatch batch) {
+        evalExpressions(context, expressions, batch == null ? null
+                : batch.select(context.getQueryResult(), context.getDocumentIndex(), context.getSelectionCache()));
+    }
+
+    /**
+     * Evaluates each expression on the same context, its state is restored
+     * after each expression.
+     * <p>
+     * With {@link EvalContext#isParallelNested()}, the nested targets of two
+     * nested expressions or more are evaluated in parallel, each one on a
+     * copy of the context, and assigned in order once joined.
+     * <p>
+     * Once the cancellation of the context is cancelled, a
+     * {@link CancellationException} is thrown before the next expression.
+     * 
+     * @param context
+     *            the context of the evaluation
+     * @param expressions
+     *            expressions of the target
+     * @param selected
+     *            elements of the first select queries of the expressions by
+     *            batch slot, can be null
+     */
+    public static void evalExpressions(final EvalContext context, final ExpressionStep[] expressions,
+            final Elements[] selected) {
+
+        ForkJoinPool pool = nestedPool(context, expressions);
+        if (pool != null && ForkJoinTask.getPool() != pool) {
+            // forks from the pool, not from another one
+            invoke(pool, new Runnable() {
+                public void run() {
+                    evalExpressions(context, expressions, selected);
+                }
+            });
+            return;
+        }
+
+        Elements queryResult = context.getQueryResult();
+        String memberName = context.getMemberName();
+        boolean optional = context.isOptional();
+        TableIndex tableIndex = context.getTableIndex();
+        Elements[] parentSelected = context.getSelected();
+
+        context.setSelected(selected);
+        NestedTask[] nested = pool == null ? null : forkNested(context, expressions, pool);
+        try {
+            for (int i = 0; i < expressions.length; i++) {
+                ExpressionStep expression = expressions[i];
+                if (context.getCancellation() != null && context.getCancellation().isCancelled()) {
+                    throw new CancellationException("Mapping cancelled before '" + expression.getMemberName() + "'");
+                }
+                try {
+                    if (nested != null && nested[i] != null) {
+                        nested[i].assign(context);
+                    } else {
+                        evalExpression(context, expression);
+                    }
+                } catch (CancellationException e) {
+                    // from a nested target, stops the mapping
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (!(expression.isOptional() || optional)) {
+                        if (context.getErrors() == null) {
+                            throw e;
+                        }
+                        context.getErrors().add(error(context, expression, e));
+                    }
+                } finally {
+                    context.setQueryResult(queryResult);
+                    context.setMemberName(memberName);
+                    context.setOptional(optional);
+                    context.setTableIndex(tableIndex);
+                    context.setAbsent(false);
+                }
+            }
+        } finally {
+            context.setSelected(parentSelected);
+            if (nested != null) {
+                // left by a failure: the tasks not started are dropped, the
+                // other ones are waited for, they still write the frame. A
+                // cancelled task is done even while it runs.
+                for (int i = nested.length - 1; i >= 0; i--) {
+                    NestedTask task = nested[i];
+                    if (task != null && !task.isDone() && !task.tryUnfork()) {
+                        task.quietlyJoin();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the pool of the nested targets of the expressions, null to
+     *         evaluate them in sequence
+     */
+    private static ForkJoinPool nestedPool(EvalContext context, ExpressionStep[] expressions) {
+        if (!context.isParallelNested()) {
+            return null;
+        }
+        int count = 0;
+        for (ExpressionStep expression : expressions) {
+            if (expression.isNested()) {
+                count++;
+            }
+        }
+        if (count < 2) {
+            return null;
+        }
+        return context.getForkJoinPool() != null ? context.getForkJoinPool() : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Forks the nested expressions, from the current state of the context
+     * 
+     * @param pool
+     *            pool of the current task, where the expressions are forked
+     * @return the tasks by expression index
+     */
+    private static NestedTask[] forkNested(EvalContext context, ExpressionStep[] expressions, ForkJoinPool pool) {
+        if (ForkJoinTask.getPool() != pool) {
+            throw new IllegalStateException("Nested targets forked outside of their pool");
+        }
+        NestedTask[] tasks = new NestedTask[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            if (expressions[i].isNested()) {
+                tasks[i] = new NestedTask(forkContext(context), expressions[i]);
+                tasks[i].fork();
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Runs the evaluation in the pool, its failure is thrown as is.
+     */
+    private static void invoke(ForkJoinPool pool, final Runnable evaluation) {
+        final RuntimeException[] failure = new RuntimeException[1];
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                try {
+                    evaluation.run();
+                } catch (RuntimeException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Values of a nested expression evaluated on a copy of the context. The
+     * copy shares the value frame of the target, where each expression has
+     * its own slots, and the assignment is left to the target thread.
+     */
+    private static class NestedTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EvalContext context;
+
+        private final ExpressionStep expression;
+
+        private boolean evaluated;
+
+        private RuntimeException failure;
+
+        private NestedTask(EvalContext context, ExpressionStep expression) {
+            this.context = context;
+            this.expression = expression;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                evaluated = evalValues(context, expression);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Waits for the values and assigns them to the target of the context,
+         * the failure of the evaluation is thrown instead.
+         */
+        private void assign(EvalContext parent) {
+            join();
+            if (parent.getErrors() != null) {
+                parent.getErrors().addAll(context.getErrors());
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (evaluated) {
+                expression.assign(parent);
+            }
+        }
+    }
+
+    /**
+     * @return the failure of the expression, with its member path and selector
+     */
+    private static MappingError error(EvalContext context, ExpressionStep expression, RuntimeException e) {
+        String memberName = expression.getMemberName() != null ? expression.getMemberName()
+                : context.getMemberName();
+        String selector = null;
+        for (QueryStep query : expression.getQueries()) {
+            if (query.getAst() instanceof SelectQueryAST) {
+                selector = ((SelectQueryAST) query.getAst()).getQueryString();
+                break;
+            }
+        }
+        return MappingError.of(memberPath(context, memberName), selector, e);
+    }
+
+    /**
+     * @return path of the member from the mapped class
+     */
+    private static String memberPath(EvalContext context, String memberName) {
+        String path = context.getPath();
+        if (memberName == null) {
+            return path == null ? "" : path;
+        }
+        return path == null || path.isEmpty() ? memberName : path + "." + memberName;
+    }
+
+    /**
+     * Evaluates and assigns the expression. An optional expression, or one of
+     * an optional class, stops at the first step telling its value is absent
+     * and is left unassigned.
+     */
+    protected static void evalExpression(EvalContext context, ExpressionStep expression) {
+        if (evalValues(context, expression)) {
+            expression.assign(context);
+        }
+    }
+
+    /**
+     * Evaluates the values of the expression in the value frame of the
+     * context.
+     * 
+     * @return false if a value is absent and the expression must be left
+     *         unassigned
+     */
+    private static boolean evalValues(EvalContext context, ExpressionStep expression) {
+        context.setOptional(expression.isOptional() || context.isOptional());
+
+        if (expression.getMemberName() != null) {
+            context.setMemberName(expression.getMemberName());
+        }
+
+        ValueStep[] values = expression.getValues();
+        context.setValueSteps(values);
+
+        // Hoisted
+        if (expression.isInvariant()) {
+            Object[] invariantValues = context.getInvariants().get(expression);
+            if (invariantValues != null) {
+                for (int i = 0; i < values.length; i++) {
+                    context.setValue(values[i].getSlot(), values[i].getConverter().copy(invariantValues[i]));
+                }
+                return true;
+            }
+        }
+
+        if (expression.isAbsolute()) {
+            context.setQueryResult(new Elements(context.getDocument()));
+        }
+
+        // Query
+        evalQuery(context, expression.getQueries());
+        if (context.isAbsent()) {
+            return false;
+        }
+
+        // Reduce
+        for (ValueStep value : values) {
+            evalReduce(context, expression.getReduce(), value);
+        }
+
+        // Convert
+        for (ValueStep value : values) {
+            value.convert(context);
+            if (context.isAbsent()) {
+                return false;
+            }
+        }
+
+        if (expression.isInvariant()) {
+            Object[] invariantValues = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                invariantValues[i] = values[i].getConverter().copy(context.getValue(values[i].getSlot()));
+            }
+            context.getInvariants().put(expression, invariantValues);
+        }
+
+        return true;
+    }
+
+    private static void evalReduce(EvalContext context, ReduceStep reduce, ValueStep value) {
+        log.debug("{} > eval reduce : {}", context.getMemberName(), context.getQueryResult());
+        value.reduce(context, reduce);
+        log.debug("{} < eval reduce : {}", context.getMemberName(), context.getQueryResult());
+    }
+
+    private static void evalQuery(EvalContext context, QueryStep[] queries) {
+        log.debug("'{}' > eval query : {}", context.getMemberName(), context.getQueryResult());
+        for (QueryStep query : queries) {
+            query.eval(context);
+            if (context.isAbsent()) {
+                log.debug("'{}' absent", context.getMemberName());
+                return;
+            }
+        }
+        log.debug("'{}' < eval query : {}", context.getMemberName(), context.getQueryResult());
+    }
+
+    private static void evalExpressionOutOfPlan(EvalContext context, ExpressionAST expression) {
+        ExpressionStep step = context.getCompiler().compileExpressionStep(expression);
+
+        evalExpression(context.toBuilder().values(new Object[step.getValues().length])
+                .invariants(new IdentityHashMap<ExpressionStep, Object[]>()).build(), step);
+    }
+
+    /**
+     * Evaluates {@link FieldExpressionAST} out of a plan
+     */
+    public static final ExpressionEvaluator fieldEvaluator = new ExpressionEvaluator() {
+
+        public void evalExpression(EvalContext context, ExpressionAST expression) {
+            if (expression instanceof FieldExpressionAST) {
+                evalExpressionOutOfPlan(context, expression);
+            }
+        }
+
+    };
+
+    /**
+     * Evaluates {@link MethodExpressionAST} out of a plan
+     */
+    public static final ExpressionEvaluator methodEvaluator = new ExpressionEvaluator() {
+
+        public void evalExpression(EvalContext context, ExpressionAST expression) {
+            if (expression instanceof MethodExpressionAST) {
+                evalExpressionOutOfPlan(context, expression);
+            }
+        }
+
+    };
+
+    /**
+     * Evaluators by AST node class, custom query, reduce and expression types
+     * are registered here.
+     */
+    public static final EvaluatorRegistry REGISTRY = EvaluatorRegistry.defaults();
+
+    /**
+     * Evaluators of the AST types not found in {@link #REGISTRY}, each one
+     * checks the type of the node. Read by the evaluations of
+     * {@link PlanCompiler#DEFAULT} as they run.
+     * 
+     * @deprecated register the evaluator by AST class with
+     *             {@link #registerExpression(Class, ExpressionEvaluator)}
+     */
+    @Deprecated
+    public static final List<ExpressionEvaluator> EXPRESSION_EVALUATORS =
+            new CopyOnWriteArrayList<ExpressionEvaluator>();
+    /**
+     * @deprecated register the evaluator by AST class with
+     *             {@link #registerQuery(Class, QueryEvaluator)}
+     */
+    @Deprecated
+    public static final List<QueryEvaluator>      QUERY_EVALUATORS      = new CopyOnWriteArrayList<QueryEvaluator>();
+    /**
+     * @deprecated register the evaluator by AST class with
+     *             {@link #registerReduce(Class, ReduceEvaluator)}
+     */
+    @Deprecated
+    public static final List<ReduceEvaluator>     REDUCE_EVALUATORS     = new CopyOnWriteArrayList<ReduceEvaluator>();
+
+    /**
+     * Registers a query evaluator in {@link #REGISTRY}, then clears the plans
+     * of {@link PlanCompiler#DEFAULT}: the classes already compiled get the
+     * evaluator once compiled again.
+     */
+    public static synchronized void registerQuery(Class<? extends QueryAST> type, QueryEvaluator evaluator) {
+        REGISTRY.registerQuery(type, evaluator);
+        PlanCompiler.clearCache();
+    }
+
+    /**
+     * @see #registerQuery(Class, QueryEvaluator)
+     */
+    public static synchronized void registerReduce(Class<? extends ReduceAST> type, ReduceEvaluator evaluator) {
+        REGISTRY.registerReduce(type, evaluator);
+        PlanCompiler.clearCache();
+    }
+
+    /**
+     * @see #registerQuery(Class, QueryEvaluator)
+     */
+    public static synchronized void registerExpression(Class<? extends ExpressionAST> type,
+            ExpressionEvaluator evaluator) {
+        REGISTRY.registerExpression(type, evaluator);
+        PlanCompiler.clearCache();
+    }
+
+    public interface QueryEvaluator {
+
+        public void evalQuery(EvalContext context, QueryAST query);
+
+    }
+
+    public interface ReduceEvaluator {
+
+        public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST valueAST);
+
+    }
+
+    public interface ExpressionEvaluator {
+
+        public void evalExpression(EvalContext context, ExpressionAST expression);
+
+    }
+
+    /**
+     * State of one evaluation. The evaluator saves and restores it around each
+     * expression and nested target, it must not be shared between
+     * evaluations nor threads: each chunk of a parallel list is evaluated on
+     * its own copy.
+     */
+    @Data
+    @Builder(toBuilder = true)
+    public static class EvalContext {
+        protected Object target;
+
+        protected String memberName;
+
+        @Default
+        protected boolean optional = false;
+
+        /**
+         * The root document
+         */
+        protected Document document;
+
+        /**
+         * The current document
+         */
+        protected Elements queryResult;
+
+        /**
+         * Frame of the values of the current plan, indexed by value slot
+         */
+        protected Object[] values;
+
+        /**
+         * Values of the expression being evaluated, bound to their slot
+         */
+        protected ValueStep[] valueSteps;
+
+        protected TableIndex tableIndex;
+
+        /**
+         * Index of the root document, null if not used
+         */
+        protected DocumentIndex documentIndex;
+
+        /**
+         * Elements of the select batch of the current expressions, by batch
+         * slot, null if not batched
+         */
+        protected Elements[] selected;
+
+        /**
+         * Batch slot of the query being evaluated, -1 if evaluated alone
+         */
+        @Default
+        protected int batchSlot = -1;
+
+        /**
+         * Selections of the mapping, null if not cached
+         */
+        protected SelectionCache selectionCache;
+
+        /**
+         * Set by a step of an optional expression when its value is missing,
+         * instead of failing
+         */
+        protected boolean absent;
+
+        /**
+         * Failures of the members, null to throw them
+         */
+        protected List<MappingError> errors;
+
+        /**
+         * Path of the current target from the mapped class, set when errors
+         * are collected
+         */
+        protected String path;
+
+        /**
+         * Compiler of the plans of the mapping
+         */
+        @Default
+        protected PlanCompiler compiler = PlanCompiler.DEFAULT;
+
+        /**
+         * Converted values of the invariant expressions of the mapping
+         */
+        @Default
+        protected Map<ExpressionStep, Object[]> invariants = new IdentityHashMap<ExpressionStep, Object[]>();
+
+        /**
+         * Pool of the parallel lists, null to map only the {@link Parallel}
+         * ones in parallel, on the common pool
+         */
+        protected ForkJoinPool forkJoinPool;
+
+        /**
+         * Lists smaller than this are mapped sequentially
+         */
+        @Default
+        protected int parallelThreshold = PARALLEL_THRESHOLD;
+
+        /**
+         * Future of an asynchronous mapping, the evaluation stops before the
+         * next expression once it is cancelled. Null if none.
+         */
+        protected Future<?> cancellation;
+
+        /**
+         * Evaluate the sibling nested targets in parallel, on the fork join
+         * pool or else on the common pool
+         */
+        protected boolean parallelNested;
+
+        /**
+         * @param valueAST
+         *            the value being reduced or converted
+         * @return its current value
+         */
+        public Object getValue(SimpleValueAST valueAST) {
+            return values[slotOf(valueAST)];
+        }
+
+        /**
+         * @param valueAST
+         *            the value being reduced or converted
+         */
+        public void setValue(SimpleValueAST valueAST, Object value) {
+            values[slotOf(valueAST)] = value;
+        }
+
+        /**
+         * @return the slot of the value in the expression being evaluated
+         */
+        private int slotOf(SimpleValueAST valueAST) {
+            if (valueSteps != null) {
+                for (ValueStep valueStep : valueSteps) {
+                    if (valueStep.getValue() == valueAST) {
+                        return valueStep.getSlot();
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Value not in the expression being evaluated: " + valueAST);
+        }
+
+        public Object getValue(int slot) {
+            return values[slot];
+        }
+
+        public void setValue(int slot, Object value) {
+            values[slot] = value;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package estivate.core.eval;
+
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Failure of an evaluation, a missing optional value is not one.
+ * <p>
+ * Created without stack trace, the message and the member of the context
+ * locate the failure. The context is a snapshot of its member name and
+ * optional flag only, it holds no document.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@SuppressWarnings("serial")
+public class EstivateEvaluatorException extends RuntimeException {
+
+    @Getter
+    private EvalContext context;
+
+    public EstivateEvaluatorException(String message) {
+        super(message, null, false, false);
+    }
+
+    public EstivateEvaluatorException(EvalContext context, String message) {
+        super(message, null, false, false);
+        this.context = context == null ? null : snapshot(context);
+    }
+
+    private static EvalContext snapshot(EvalContext context) {
+        return EvalContext.builder()//
+                .memberName(context.getMemberName())//
+                .optional(context.isOptional())//
+                .compiler(null)//
+                .invariants(null)//
+                .build();
+    }
+
+}
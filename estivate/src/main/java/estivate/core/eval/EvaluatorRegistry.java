@@ -0,0 +1,173 @@
+package estivate.core.eval;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import estivate.core.ast.EmptyReduceAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.FieldExpressionAST;
+import estivate.core.ast.MethodExpressionAST;
+import estivate.core.ast.QueryAST;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.AttrReduceAST;
+import estivate.core.ast.lang.ColumnQueryAST;
+import estivate.core.ast.lang.IsReduceAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.ast.lang.TableQueryAST;
+import estivate.core.ast.lang.TagNameReduceAST;
+import estivate.core.ast.lang.TextReduceAST;
+import estivate.core.ast.lang.TitleReduceAST;
+import estivate.core.ast.lang.ValReduceAST;
+import estivate.core.eval.EstivateEvaluator.ExpressionEvaluator;
+import estivate.core.eval.EstivateEvaluator.QueryEvaluator;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import estivate.core.eval.lang.AttrReduceEvaluator;
+import estivate.core.eval.lang.ColumnQueryEvaluator;
+import estivate.core.eval.lang.IsReduceEvaluator;
+import estivate.core.eval.lang.SelectQueryEvaluator;
+import estivate.core.eval.lang.TableQueryEvaluator;
+import estivate.core.eval.lang.TagNameReduceEvaluator;
+import estivate.core.eval.lang.TextReduceEvaluator;
+import estivate.core.eval.lang.TitleReduceEvaluator;
+import estivate.core.eval.lang.ValReduceEvaluator;
+
+/**
+ * <p>
+ * Evaluators by AST node class.
+ * <p>
+ * A node is evaluated by the evaluator registered for its class, or else for
+ * its nearest registered superclass. The plan compiler resolves each node
+ * once, so custom query or reduce types dont add any check to the built-in
+ * ones.
+ * <p>
+ * Thread safe, though evaluators should be registered before mapping: nodes
+ * already compiled keep their evaluator. An {@link #immutableCopy()} cant be
+ * modified at all.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class EvaluatorRegistry {
+
+    private final Map<Class<?>, QueryEvaluator> queryEvaluators;
+
+    private final Map<Class<?>, ReduceEvaluator> reduceEvaluators;
+
+    private final Map<Class<?>, ExpressionEvaluator> expressionEvaluators;
+
+    public EvaluatorRegistry() {
+        this(new ConcurrentHashMap<Class<?>, QueryEvaluator>(), new ConcurrentHashMap<Class<?>, ReduceEvaluator>(),
+                new ConcurrentHashMap<Class<?>, ExpressionEvaluator>());
+    }
+
+    private EvaluatorRegistry(Map<Class<?>, QueryEvaluator> queryEvaluators,
+            Map<Class<?>, ReduceEvaluator> reduceEvaluators, Map<Class<?>, ExpressionEvaluator> expressionEvaluators) {
+        this.queryEvaluators = queryEvaluators;
+        this.reduceEvaluators = reduceEvaluators;
+        this.expressionEvaluators = expressionEvaluators;
+    }
+
+    /**
+     * @return a registry of the built-in evaluators
+     */
+    public static EvaluatorRegistry defaults() {
+        EvaluatorRegistry registry = new EvaluatorRegistry();
+
+        registry.registerExpression(FieldExpressionAST.class, EstivateEvaluator.fieldEvaluator);
+        registry.registerExpression(MethodExpressionAST.class, EstivateEvaluator.methodEvaluator);
+
+        registry.registerQuery(SelectQueryAST.class, SelectQueryEvaluator.INSTANCE);
+        registry.registerQuery(TableQueryAST.class, TableQueryEvaluator.INSTANCE);
+        registry.registerQuery(ColumnQueryAST.class, ColumnQueryEvaluator.INSTANCE);
+
+        registry.registerReduce(EmptyReduceAST.class, EmptyReduceEvaluator.INSTANCE);
+        registry.registerReduce(IsReduceAST.class, IsReduceEvaluator.INSTANCE);
+        registry.registerReduce(AttrReduceAST.class, AttrReduceEvaluator.INSTANCE);
+        registry.registerReduce(TextReduceAST.class, TextReduceEvaluator.INSTANCE);
+        registry.registerReduce(ValReduceAST.class, ValReduceEvaluator.INSTANCE);
+        registry.registerReduce(TagNameReduceAST.class, TagNameReduceEvaluator.INSTANCE);
+        registry.registerReduce(TitleReduceAST.class, TitleReduceEvaluator.INSTANCE);
+
+        return registry;
+    }
+
+    /**
+     * @return a registry of the current evaluators
+     */
+    public EvaluatorRegistry copy() {
+        return new EvaluatorRegistry(new ConcurrentHashMap<Class<?>, QueryEvaluator>(queryEvaluators),
+                new ConcurrentHashMap<Class<?>, ReduceEvaluator>(reduceEvaluators),
+                new ConcurrentHashMap<Class<?>, ExpressionEvaluator>(expressionEvaluators));
+    }
+
+    /**
+     * @return a registry of the current evaluators, its registrations throw
+     *         {@link UnsupportedOperationException}
+     */
+    public EvaluatorRegistry immutableCopy() {
+        return new EvaluatorRegistry(
+                Collections.unmodifiableMap(new HashMap<Class<?>, QueryEvaluator>(queryEvaluators)),
+                Collections.unmodifiableMap(new HashMap<Class<?>, ReduceEvaluator>(reduceEvaluators)),
+                Collections.unmodifiableMap(new HashMap<Class<?>, ExpressionEvaluator>(expressionEvaluators)));
+    }
+
+    /**
+     * Registers every evaluator of the other registry, replacing the ones of
+     * the same type.
+     */
+    public void registerAll(EvaluatorRegistry other) {
+        queryEvaluators.putAll(other.queryEvaluators);
+        reduceEvaluators.putAll(other.reduceEvaluators);
+        expressionEvaluators.putAll(other.expressionEvaluators);
+    }
+
+    public boolean isEmpty() {
+        return queryEvaluators.isEmpty() && reduceEvaluators.isEmpty() && expressionEvaluators.isEmpty();
+    }
+
+    public void registerQuery(Class<? extends QueryAST> type, QueryEvaluator evaluator) {
+        queryEvaluators.put(type, evaluator);
+    }
+
+    public void registerReduce(Class<? extends ReduceAST> type, ReduceEvaluator evaluator) {
+        reduceEvaluators.put(type, evaluator);
+    }
+
+    public void registerExpression(Class<? extends ExpressionAST> type, ExpressionEvaluator evaluator) {
+        expressionEvaluators.put(type, evaluator);
+    }
+
+    /**
+     * @return the evaluator of the query type, null if none
+     */
+    public QueryEvaluator queryEvaluator(Class<?> type) {
+        return resolve(queryEvaluators, type);
+    }
+
+    /**
+     * @return the evaluator of the reduce type, null if none
+     */
+    public ReduceEvaluator reduceEvaluator(Class<?> type) {
+        return resolve(reduceEvaluators, type);
+    }
+
+    /**
+     * @return the evaluator of the expression type, null if none
+     */
+    public ExpressionEvaluator expressionEvaluator(Class<?> type) {
+        return resolve(expressionEvaluators, type);
+    }
+
+    private static <E> E resolve(Map<Class<?>, E> evaluators, Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            E evaluator = evaluators.get(c);
+            if (evaluator != null) {
+                return evaluator;
+            }
+        }
+        return null;
+    }
+
+}
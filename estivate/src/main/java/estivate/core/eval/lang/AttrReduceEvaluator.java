@@ -17,46 +17,54 @@ import lombok.extern.slf4j.Slf4j;
 public class AttrReduceEvaluator implements ReduceEvaluator {
 
 	public static final AttrReduceEvaluator INSTANCE = new AttrReduceEvaluator();
-	
+
 	public void evalReduce(EvalContext context, ReduceAST reduce,
 			 SimpleValueAST simpleValueAST) {
-		
+
 		if(reduce instanceof AttrReduceAST){
 			AttrReduceAST ast = (AttrReduceAST) reduce;
-			
+
 			Elements elements = context.getQueryResult();
-			
-			Object reduceValue;
-			
-			if (simpleValueAST.isValueList()) {
-				List<String> list = new ArrayList<String>();
 
-				for (Element element : elements) {
-					list.add(element.attr(ast.getAttr()));
-				}
+			Object reduceValue;
 
-				reduceValue = list;
+			if (simpleValueAST.isValueList()) {
+				reduceValue = attrList(elements, ast.getAttr());
 			} else {
-				if (elements.size() > 1) {
-					log.warn(
-							"'{}' attr concats elements. Consider fixing the Query expression to get only one element.",
-							context.getMemberName());
-				}
-
-				StringBuilder sb = new StringBuilder(50);
-				for (Element element : elements) {
-					if (sb.length() != 0)
-						sb.append(" ");
-					sb.append(element.attr(ast.getAttr()));
-				}
-
-				reduceValue = sb.toString();
+				reduceValue = attr(elements, ast.getAttr(), context.getMemberName());
 			}
-			
-			context.getValue().put(simpleValueAST, reduceValue);
-			
+
+			context.setValue(simpleValueAST, reduceValue);
+
 		}
-		
+
+	}
+
+	public static List<String> attrList(Elements elements, String attr) {
+		List<String> list = new ArrayList<String>();
+
+		for (Element element : elements) {
+			list.add(element.attr(attr));
+		}
+
+		return list;
+	}
+
+	public static String attr(Elements elements, String attr, String memberName) {
+		if (elements.size() > 1) {
+			log.warn(
+					"'{}' attr concats elements. Consider fixing the Query expression to get only one element.",
+					memberName);
+		}
+
+		StringBuilder sb = new StringBuilder(50);
+		for (Element element : elements) {
+			if (sb.length() != 0)
+				sb.append(" ");
+			sb.append(element.attr(attr));
+		}
+
+		return sb.toString();
 	}
 
 }
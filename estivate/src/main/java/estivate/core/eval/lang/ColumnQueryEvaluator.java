@@ -66,7 +66,8 @@ public class ColumnQueryEvaluator implements QueryEvaluator {
                 for (Entry<String, IntRange> entry : entrySet) {
                     if (regex.matcher(entry.getKey().replaceAll("\\\\/", "/")).matches()) {
                         IntRange indexOf = entry.getValue();
-                        context.setQueryResult(TableQueryEvaluator.findTdsInRange(row.select("td"), indexOf));
+                        context.setQueryResult(
+                                TableQueryEvaluator.findTdsInRange(row.select(TableQueryEvaluator.CELLS), indexOf));
                         break;
                     }
                 }
@@ -80,15 +81,18 @@ public class ColumnQueryEvaluator implements QueryEvaluator {
                     throw new EstivateEvaluatorException(context, "Column not found: " + columnName);
                 }
 
-                context.setQueryResult(TableQueryEvaluator.findTdsInRange(row.select("td"), indexOf));
+                context.setQueryResult(
+                        TableQueryEvaluator.findTdsInRange(row.select(TableQueryEvaluator.CELLS), indexOf));
             } else if (StringUtil.isNotBlank(ast.getHavingExpr())) {
                 String havingExpr = ast.getHavingExpr();
-                IntRange indexOf = context.getTableIndex().eval(havingExpr);
+                IntRange indexOf = context.getTableIndex().eval(havingExpr, ast.getHavingEvaluator(),
+                        ast.getHasHavingEvaluator());
                 if (indexOf == null) {
                     throw new EstivateEvaluatorException(context, "Column not found: " + havingExpr);
                 }
 
-                context.setQueryResult(TableQueryEvaluator.findTdsInRange(row.select("td"), indexOf));
+                context.setQueryResult(
+                        TableQueryEvaluator.findTdsInRange(row.select(TableQueryEvaluator.CELLS), indexOf));
             }
         }
 
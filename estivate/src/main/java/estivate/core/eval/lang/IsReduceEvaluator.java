@@ -0,0 +1,79 @@
+package estivate.core.eval.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+
+import estivate.core.Selectors;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.IsReduceAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class IsReduceEvaluator implements ReduceEvaluator {
+
+    public static final IsReduceEvaluator INSTANCE = new IsReduceEvaluator();
+
+    public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST simpleValueAST) {
+
+        if (reduce instanceof IsReduceAST) {
+            IsReduceAST ast = (IsReduceAST) reduce;
+
+            Elements elements = context.getQueryResult();
+
+            Object reduceValue;
+
+            if (simpleValueAST.isValueList()) {
+                reduceValue = isList(elements, ast.getIsEvaluator());
+            } else {
+                reduceValue = is(elements, ast.getIsEvaluator(), context.getMemberName());
+            }
+
+            context.setValue(simpleValueAST, reduceValue);
+
+        }
+
+    }
+
+    public static List<String> isList(Elements elements, String is) {
+        return isList(elements, Selectors.compile(is));
+    }
+
+    public static String is(Elements elements, String is, String memberName) {
+        return is(elements, Selectors.compile(is), memberName);
+    }
+
+    public static List<String> isList(Elements elements, Evaluator is) {
+        List<String> list = new ArrayList<String>();
+
+        for (Element element : elements) {
+            list.add(Boolean.toString(element.is(is)));
+        }
+
+        return list;
+    }
+
+    public static String is(Elements elements, Evaluator is, String memberName) {
+        if (elements.size() > 1) {
+            log.warn(
+                    "'{}' attr concats elements. Consider fixing the Query expression to get only one element.",
+                    memberName);
+        }
+
+        StringBuilder sb = new StringBuilder(50);
+        for (Element element : elements) {
+            if (sb.length() != 0)
+                sb.append(" ");
+            sb.append(Boolean.toString(element.is(is)));
+        }
+
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,345 @@
+package estivate.core.eval.lang;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import estivate.core.DocumentIndex;
+import estivate.core.SelectionCache;
+import estivate.core.ast.QueryAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.QueryEvaluator;
+import estivate.core.eval.EstivateEvaluatorException;
+import estivate.utils.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class SelectQueryEvaluator implements QueryEvaluator {
+
+    public static final SelectQueryEvaluator INSTANCE = new SelectQueryEvaluator();
+
+    public void evalQuery(EvalContext context, QueryAST query) {
+        if (query instanceof SelectQueryAST) {
+            SelectQueryAST ast = (SelectQueryAST) query;
+
+            Elements queryResult = context.getQueryResult();
+
+            String queryString = ast.getQueryString();
+
+            if (!StringUtil.isBlank(queryString)) {
+
+                log.debug("> eval Select Query [{}]", queryString);
+
+                Elements selected = selectBatched(context, ast);
+                if (selected == null) {
+                    selected = selectCached(context, ast);
+                }
+                if (selected == null) {
+                    selected = selectIndexed(context, ast);
+                }
+                if (selected != null) {
+                    queryResult = pick(context, selected, queryString, ast.getIndex(), ast.isUnique(), ast.isFirst(),
+                            ast.isLast());
+                } else {
+                    queryResult = select(context, context.getQueryResult(), ast.getEvaluator(), queryString,
+                            ast.getIndex(), ast.isUnique(), ast.isFirst(), ast.isLast());
+                }
+
+                log.debug("< eval Select Query [{}] : {}", queryString, queryResult);
+            }
+
+            context.setQueryResult(queryResult);
+
+        }
+
+    }
+
+    /**
+     * @return the elements of the query selected with the other queries of
+     *         its batch, null if not batched
+     */
+    protected static Elements selectBatched(EvalContext context, SelectQueryAST ast) {
+        Elements[] selected = context.getSelected();
+        int slot = context.getBatchSlot();
+        if (selected == null || slot < 0 || slot >= selected.length) {
+            return null;
+        }
+        return selected[slot];
+    }
+
+    /**
+     * @return the elements matching the query from the selection cache, null
+     *         if not cached
+     */
+    protected static Elements selectCached(EvalContext context, SelectQueryAST ast) {
+        Elements roots = context.getQueryResult();
+        if (context.getSelectionCache() == null || roots.size() != 1) {
+            return null;
+        }
+        return select(context, roots.get(0), ast.getEvaluator(), ast.getIndexQuery());
+    }
+
+    /**
+     * @return the elements matching the query from the document index, null
+     *         if the query is left to JSoup
+     */
+    protected static Elements selectIndexed(EvalContext context, SelectQueryAST ast) {
+        DocumentIndex documentIndex = context.getDocumentIndex();
+        Elements roots = context.getQueryResult();
+        if (documentIndex == null || ast.getIndexQuery() == null || roots.size() != 1) {
+            return null;
+        }
+        return documentIndex.select(ast.getIndexQuery(), roots.get(0), ast.getEvaluator());
+    }
+
+    /**
+     * Every element matching the query from the root, from the selection
+     * cache, the document index or JSoup, whichever the context has.
+     *
+     * @param indexQuery
+     *            the query parsed for the document index, can be null
+     * @return the matching elements, not to be modified
+     */
+    public static Elements select(EvalContext context, Element root, Evaluator evaluator,
+            DocumentIndex.Query indexQuery) {
+        SelectionCache cache = context.getSelectionCache();
+        Elements selected = cache == null ? null : cache.get(root, evaluator);
+        if (selected == null) {
+            DocumentIndex documentIndex = context.getDocumentIndex();
+            if (documentIndex != null && indexQuery != null) {
+                selected = documentIndex.select(indexQuery, root, evaluator);
+            }
+            if (selected == null) {
+                selected = Collector.collect(evaluator, root);
+            }
+            if (cache != null) {
+                cache.put(root, evaluator, selected);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Same as {@link Elements#select(String)} with an already parsed query:
+     * elements matching from each root, in roots order, without duplicates.
+     *
+     * @param roots
+     *            the current query result
+     * @param evaluator
+     *            the parsed query
+     * @return the matching elements
+     */
+    public static Elements select(Elements roots, Evaluator evaluator) {
+        if (roots.size() == 1) {
+            return Collector.collect(evaluator, roots.get(0));
+        }
+
+        List<Element> elements = new ArrayList<Element>();
+        IdentityHashMap<Element, Boolean> seenElements = new IdentityHashMap<Element, Boolean>();
+        for (Element root : roots) {
+            for (Element element : Collector.collect(evaluator, root)) {
+                if (!seenElements.containsKey(element)) {
+                    elements.add(element);
+                    seenElements.put(element, Boolean.TRUE);
+                }
+            }
+        }
+        return new Elements(elements);
+    }
+
+    /**
+     * Selects the elements asked by first, last, index or unique. The
+     * traversal stops as soon as the asked element is found: at the first
+     * match for first, the Nth for index and the second for unique. Last keeps
+     * only the last match.
+     *
+     * @param context
+     *            the context of the evaluation, null out of the evaluator
+     * @param roots
+     *            the current query result
+     * @param evaluator
+     *            the parsed query
+     * @param queryString
+     *            the query, for messages
+     * @return the selected elements
+     */
+    public static Elements select(EvalContext context, Elements roots, Evaluator evaluator, String queryString,
+            int index, boolean unique, boolean first, boolean last) {
+        if (first) {
+            return single(context, select(roots, evaluator, 1).first());
+        } else if (last) {
+            return single(context, selectLast(roots, evaluator));
+        } else if (index > 0) {
+            return pick(context, select(roots, evaluator, index), queryString, index, false, false, false);
+        } else if (unique) {
+            Elements select = select(roots, evaluator, 2);
+            if (select.size() > 1) {
+                // counts all of them for the message
+                select = select(roots, evaluator);
+            }
+            return pick(context, select, queryString, index, true, false, false);
+        } else {
+            return select(roots, evaluator);
+        }
+    }
+
+    /**
+     * Same as {@link #select(Elements, Evaluator)}, stopping the traversal once
+     * limit elements are found.
+     *
+     * @param roots
+     *            the current query result
+     * @param evaluator
+     *            the parsed query
+     * @param limit
+     *            the maximum number of elements
+     * @return at most limit matching elements
+     */
+    public static Elements select(Elements roots, Evaluator evaluator, int limit) {
+        LimitedCollector collector = new LimitedCollector(evaluator, limit, roots.size() > 1);
+        for (Element root : roots) {
+            collector.root = root;
+            if (NodeTraversor.filter(collector, root) == NodeFilter.FilterResult.STOP) {
+                break;
+            }
+        }
+        return collector.found;
+    }
+
+    /**
+     * @return the last element matching the query, null if none
+     */
+    public static Element selectLast(Elements roots, Evaluator evaluator) {
+        if (roots.size() != 1) {
+            return select(roots, evaluator).last();
+        }
+        LastCollector collector = new LastCollector(evaluator, roots.get(0));
+        NodeTraversor.filter(collector, collector.root);
+        return collector.last;
+    }
+
+    /**
+     * Keeps the elements asked by first, last, index or unique.
+     *
+     * @param context
+     *            the context of the evaluation, null out of the evaluator
+     * @param select
+     *            elements matching the query
+     * @param queryString
+     *            the query, for messages
+     * @return the kept elements
+     */
+    public static Elements pick(EvalContext context, Elements select, String queryString, int index, boolean unique,
+            boolean first, boolean last) {
+        if (first) {
+            return single(context, select.first());
+        } else if (last) {
+            return single(context, select.last());
+        } else if (index > 0) {
+            if (select.isEmpty()) {
+                return single(context, null);
+            } else if (index > select.size()) {
+                log.warn("index (" + index + ") is greater than select result size (" + select.size()
+                        + "). Peeking the last.");
+                return new Elements(select.last());
+            } else {
+                return new Elements(select.get(index - 1));
+            }
+        } else if (unique && select.size() > 1) {
+            throw new EstivateEvaluatorException(context,
+                    "No unique element after query '" + queryString + "' found " + select.size());
+        } else {
+            return select;
+        }
+    }
+
+    /**
+     * @param element
+     *            the picked element, null if none
+     * @return the element, the value of an optional expression is absent
+     *         without element
+     */
+    private static Elements single(EvalContext context, Element element) {
+        if (element == null && context != null && context.isOptional()) {
+            context.setAbsent(true);
+            return new Elements();
+        }
+        return new Elements(element);
+    }
+
+    private static final class LimitedCollector implements NodeFilter {
+
+        private final Evaluator evaluator;
+
+        private final int limit;
+
+        private final Elements found;
+
+        /**
+         * Elements already found from a previous root
+         */
+        private final IdentityHashMap<Element, Boolean> seenElements;
+
+        private Element root;
+
+        private LimitedCollector(Evaluator evaluator, int limit, boolean multipleRoots) {
+            this.evaluator = evaluator;
+            this.limit = limit;
+            this.found = new Elements(Math.min(limit, 16));
+            this.seenElements = multipleRoots ? new IdentityHashMap<Element, Boolean>() : null;
+        }
+
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof Element) {
+                Element element = (Element) node;
+                if (evaluator.matches(root, element)
+                        && (seenElements == null || seenElements.put(element, Boolean.TRUE) == null)) {
+                    found.add(element);
+                    if (found.size() >= limit) {
+                        return FilterResult.STOP;
+                    }
+                }
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        public FilterResult tail(Node node, int depth) {
+            return FilterResult.CONTINUE;
+        }
+    }
+
+    private static final class LastCollector implements NodeFilter {
+
+        private final Evaluator evaluator;
+
+        private final Element root;
+
+        private Element last;
+
+        private LastCollector(Evaluator evaluator, Element root) {
+            this.evaluator = evaluator;
+            this.root = root;
+        }
+
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof Element && evaluator.matches(root, (Element) node)) {
+                last = (Element) node;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        public FilterResult tail(Node node, int depth) {
+            return FilterResult.CONTINUE;
+        }
+    }
+
+}
@@ -7,10 +7,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
 
+import estivate.core.Selectors;
 import estivate.core.ast.QueryAST;
 import estivate.core.ast.lang.TableQueryAST;
 import estivate.core.eval.EstivateEvaluator.EvalContext;
@@ -24,6 +27,12 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
 
     public static final TableQueryEvaluator INSTANCE = new TableQueryEvaluator();
 
+    protected static final Evaluator HEAD_ROWS = Selectors.compile("thead tr");
+
+    protected static final Evaluator HEADERS = Selectors.compile("th,td");
+
+    protected static final Evaluator CELLS = Selectors.compile("td");
+
     @Override
     public void evalQuery(EvalContext context, QueryAST query) {
         if (query instanceof TableQueryAST) {
@@ -35,7 +44,7 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
 
             // here set table select datas and column indexation result
 
-            Elements headRows = tableRootElement.select("thead tr");
+            Elements headRows = select(tableRootElement, HEAD_ROWS);
 
             TableIndex tableIndex = new TableIndex(headRows);
 
@@ -46,7 +55,7 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
             int[] rowCarries = new int[numberOfCols];
             int[] colCarries = new int[numberOfCols];
             for (Element row : headRows) {
-                Iterator<Element> headers = row.select("th,td").iterator();
+                Iterator<Element> headers = row.select(HEADERS).iterator();
                 for (int currCol = 0; currCol < numberOfCols;) {
                     int rowCarry = rowCarries[currCol];
                     int colCarry = colCarries[currCol];
@@ -84,7 +93,7 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
             context.setTableIndex(tableIndex);
 
             // select table data rows
-            Elements dataRows = tableRootElement.select(ast.getRowSelector());
+            Elements dataRows = select(tableRootElement, ast.getRowEvaluator());
 
             context.setQueryResult(dataRows);
         }
@@ -98,7 +107,7 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
      */
     private static int numberOfCols(Elements headRows) {
         int size = 0;
-        Elements select = headRows.first().select("th,td");
+        Elements select = headRows.first().select(HEADERS);
         for (Element element : select) {
             size += readIntAttr(element, "colspan", 1);
         }
@@ -144,8 +153,8 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
         // <Row, Text() Path, IntRange>
         Map<Integer, Map<String, IntRange>> rowColMap = new HashMap<Integer, Map<String, IntRange>>();
 
-        // <havingExpr, IntRange>
-        Map<String, IntRange> evalCache = new HashMap<String, IntRange>();
+        // <havingExpr, IntRange>, shared by the items of a parallel list
+        Map<String, IntRange> evalCache = new ConcurrentHashMap<String, IntRange>();
 
         public TableIndex(Elements headRows) {
             headerRows = headRows;
@@ -179,21 +188,34 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
         }
 
         public IntRange eval(String havingExpr) {
+            return eval(havingExpr, Selectors.compile(havingExpr), Selectors.compileHas(havingExpr));
+        }
+
+        /**
+         * @param havingExpr
+         *            the having expression, key of the cache
+         * @param having
+         *            the compiled having expression
+         * @param hasHaving
+         *            the compiled ':has(having expression)'
+         * @return range of the only matching column
+         */
+        public IntRange eval(String havingExpr, Evaluator having, Evaluator hasHaving) {
             IntRange intRange = evalCache.get(havingExpr);
             if (intRange == null) {
-                intRange = evalWithoutCache(havingExpr);
+                intRange = evalWithoutCache(havingExpr, having, hasHaving);
                 evalCache.put(havingExpr, intRange);
             }
             return intRange;
         }
 
-        private IntRange evalWithoutCache(String havingExpr) {
+        private IntRange evalWithoutCache(String havingExpr, Evaluator having, Evaluator hasHaving) {
             List<IntRange> results = new ArrayList<IntRange>();
 
             // index table header cols
             int numberOfCols = numberOfCols(headerRows);
             for (Element row : headerRows) {
-                Iterator<Element> headers = row.select("th,td").iterator();
+                Iterator<Element> headers = row.select(HEADERS).iterator();
                 for (int currCol = 0; currCol < numberOfCols;) {
                     if (!headers.hasNext()) {
                         log.error("Missing 'th' element, html was {}", headerRows);
@@ -203,7 +225,7 @@ public class TableQueryEvaluator extends SelectQueryEvaluator {
 
                     int colSpan = readIntAttr(header, "colspan", 1);
 
-                    if (header.is(havingExpr) || header.is(":has(" + havingExpr + ")")) {
+                    if (header.is(having) || header.is(hasHaving)) {
                         results.add(IntRange.of(currCol, currCol + colSpan - 1));
                     }
 
@@ -28,32 +28,40 @@ public class TagNameReduceEvaluator implements ReduceEvaluator {
 			Object reduceValue;
 
 			if (simpleValueAST.isValueList()) {
-				List<String> list = new ArrayList<String>();
-
-				for (Element element : elements) {
-					list.add(element.tagName());
-				}
-
-				reduceValue = list;
+				reduceValue = tagNameList(elements);
 			} else {
-				if (elements.size() > 1) {
-					log.warn(
-							"'{}' TagName concats elements. Consider fixing the Query expression to get only one element.",
-							context.getMemberName());
-				}
-
-				StringBuilder sb = new StringBuilder(50);
-				for (Element element : elements) {
-					if (sb.length() != 0)
-						sb.append(" ");
-					sb.append(element.tagName());
-				}
-
-				reduceValue = sb.toString();
+				reduceValue = tagName(elements, context.getMemberName());
 			}
 
-			context.getValue().put(simpleValueAST, reduceValue);
+			context.setValue(simpleValueAST, reduceValue);
 		}
 	}
 
+	public static List<String> tagNameList(Elements elements) {
+		List<String> list = new ArrayList<String>();
+
+		for (Element element : elements) {
+			list.add(element.tagName());
+		}
+
+		return list;
+	}
+
+	public static String tagName(Elements elements, String memberName) {
+		if (elements.size() > 1) {
+			log.warn(
+					"'{}' TagName concats elements. Consider fixing the Query expression to get only one element.",
+					memberName);
+		}
+
+		StringBuilder sb = new StringBuilder(50);
+		for (Element element : elements) {
+			if (sb.length() != 0)
+				sb.append(" ");
+			sb.append(element.tagName());
+		}
+
+		return sb.toString();
+	}
+
 }
@@ -0,0 +1,82 @@
+package estivate.core.eval.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.ast.lang.TextReduceAST;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class TextReduceEvaluator implements ReduceEvaluator {
+
+    public static final TextReduceEvaluator INSTANCE = new TextReduceEvaluator();
+
+    public void evalReduce(
+            estivate.core.eval.EstivateEvaluator.EvalContext context,
+            ReduceAST reduce, SimpleValueAST valueAST) {
+
+        if(reduce instanceof TextReduceAST){
+
+            TextReduceAST text = (TextReduceAST) reduce;
+
+            Elements elements = context.getQueryResult();
+
+            Object value;
+
+            if (valueAST.isValueList()) {
+                value = textList(elements, text.isOwn());
+            } else {
+                value = text(elements, text.isOwn(), context.getMemberName());
+            }
+
+            context.setValue(valueAST, value);
+        }
+
+    }
+
+    public static List<String> textList(Elements elements, boolean own) {
+        List<String> list = new ArrayList<String>();
+        if (own) {
+            log.debug("using list owntext()");
+            for (Element element : elements) {
+                list.add(element.ownText());
+            }
+        } else {
+            log.debug("using list text()");
+            for (Element element : elements) {
+                list.add(element.text());
+            }
+        }
+        return list;
+    }
+
+    public static String text(Elements elements, boolean own, String memberName) {
+        if (elements.size() > 1) {
+            log.warn(
+                    "'{}' text using first element. Consider fixing the select expression to get only one element.",
+                    memberName);
+        }
+        if (own) {
+            log.debug("using simple owntext()");
+
+            StringBuilder sb = new StringBuilder(50);
+            for (Element element : elements) {
+                if (sb.length() != 0)
+                    sb.append(" ");
+                sb.append(element.ownText());
+            }
+
+            return sb.toString();
+        } else {
+            log.debug("using simple text()");
+            return elements.text();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package estivate.core.eval.lang;
+
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+
+import estivate.core.DocumentIndex;
+import estivate.core.Selectors;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.ast.lang.TitleReduceAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+
+public class TitleReduceEvaluator implements ReduceEvaluator {
+
+	public static final TitleReduceEvaluator INSTANCE = new TitleReduceEvaluator();
+
+	protected static final Evaluator TITLE = Selectors.compile("title");
+
+	protected static final DocumentIndex.Query TITLE_INDEX = DocumentIndex.Query.parse("title");
+
+	public void evalReduce(EvalContext context, ReduceAST reduce,
+			SimpleValueAST valueAST) {
+		
+		if(reduce instanceof TitleReduceAST){
+			context.setValue(valueAST, title(context));
+		}
+	}
+
+	/**
+	 * Same as {@link org.jsoup.nodes.Document#title()}, through the selection
+	 * cache and the document index of the context
+	 */
+	public static String title(EvalContext context) {
+		Element title = SelectQueryEvaluator.select(context, context.getDocument(), TITLE, TITLE_INDEX).first();
+		return title != null ? StringUtil.normaliseWhitespace(title.text()).trim() : "";
+	}
+
+}
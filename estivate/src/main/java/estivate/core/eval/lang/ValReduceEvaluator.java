@@ -17,7 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ValReduceEvaluator implements ReduceEvaluator {
 
 	public static final ValReduceEvaluator INSTANCE = new ValReduceEvaluator();
-	
+
 	public void evalReduce(EvalContext context, ReduceAST reduce,
 			SimpleValueAST simpleValueAST) {
 
@@ -28,34 +28,41 @@ public class ValReduceEvaluator implements ReduceEvaluator {
 			Object reduceValue;
 
 			if (simpleValueAST.isValueList()) {
-				List<String> list = new ArrayList<String>();
-
-				for (Element element : elements) {
-					list.add(element.val());
-				}
-
-				reduceValue = list;
+				reduceValue = valList(elements);
 			} else {
-				if (elements.size() > 1) {
-					log.warn(
-							"'{}' Val concats elements. Consider fixing the Query expression to get only one element.",
-							context.getMemberName());
-				}
-
-				StringBuilder sb = new StringBuilder(50);
-				for (Element element : elements) {
-					if (sb.length() != 0)
-						sb.append(" ");
-					sb.append(element.val());
-				}
-
-				reduceValue = sb.toString();
+				reduceValue = val(elements, context.getMemberName());
 			}
-			
-			
-			context.getValue().put(simpleValueAST, reduceValue);
+
+
+			context.setValue(simpleValueAST, reduceValue);
 		}
 	}
 
+	public static List<String> valList(Elements elements) {
+		List<String> list = new ArrayList<String>();
+
+		for (Element element : elements) {
+			list.add(element.val());
+		}
+
+		return list;
+	}
+
+	public static String val(Elements elements, String memberName) {
+		if (elements.size() > 1) {
+			log.warn(
+					"'{}' Val concats elements. Consider fixing the Query expression to get only one element.",
+					memberName);
+		}
+
+		StringBuilder sb = new StringBuilder(50);
+		for (Element element : elements) {
+			if (sb.length() != 0)
+				sb.append(" ");
+			sb.append(element.val());
+		}
+
+		return sb.toString();
+	}
 
 }
@@ -0,0 +1,53 @@
+package estivate.core.generated;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+
+import estivate.core.plan.PlanCompiler;
+
+/**
+ * <p>
+ * Mapper of one class generated at build time by the estivate-processor
+ * annotation processor. It calls JSoup and sets the members directly, without
+ * reflection.
+ * <p>
+ * The generated class is named after the binary name of the mapped class
+ * followed by {@link #SUFFIX}, in the same package.
+ *
+ * @see GeneratedMappers
+ *
+ * @author Benoit Theunissen
+ *
+ * @param <T>
+ *            the mapped class
+ */
+public interface GeneratedMapper<T> {
+
+    public static final String SUFFIX = "_EstivateMapper";
+
+    /**
+     * Evaluates the class level queries.
+     *
+     * @param document
+     *            the root document
+     * @param queryResult
+     *            the current query result
+     * @return the query result of the class
+     */
+    public Elements query(Document document, Elements queryResult);
+
+    /**
+     * Maps a new target, the class level queries are not evaluated.
+     *
+     * @param document
+     *            the root document
+     * @param queryResult
+     *            the current query result
+     * @param compiler
+     *            compiler of the mapper, for the nested classes without
+     *            generated mapper
+     * @return the new target
+     */
+    public T eval(Document document, Elements queryResult, PlanCompiler compiler);
+
+}
@@ -0,0 +1,161 @@
+package estivate.core.generated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import estivate.core.ClassCache;
+import estivate.core.ClassUtils;
+import estivate.core.Function;
+import estivate.core.eval.EstivateEvaluator;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluatorException;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Lookup of {@link GeneratedMapper} and support methods called by the
+ * generated code.
+ * <p>
+ * A class without generated mapper is evaluated from its {@link MappingPlan}.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public class GeneratedMappers {
+
+    private static final GeneratedMapper<Object> NONE = new GeneratedMapper<Object>() {
+        public Elements query(Document document, Elements queryResult) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Object eval(Document document, Elements queryResult, PlanCompiler compiler) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    /**
+     * Generated mapper of each class, looked up once.
+     */
+    protected static final ClassCache<GeneratedMapper<?>> cache = new ClassCache<GeneratedMapper<?>>() {
+        @Override
+        protected GeneratedMapper<?> compute(Class<?> clazz) {
+            return lookup(clazz);
+        }
+    };
+
+    /**
+     * Finds the generated mapper of a class.
+     *
+     * @param clazz
+     *            the mapped class
+     * @return the generated mapper, null if the class has none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> GeneratedMapper<T> find(Class<T> clazz) {
+        GeneratedMapper<?> mapper = cache.get(clazz);
+        return mapper == NONE ? null : (GeneratedMapper<T>) mapper;
+    }
+
+    public static String mapperName(Class<?> clazz) {
+        return clazz.getName() + GeneratedMapper.SUFFIX;
+    }
+
+    public static ClassCache<GeneratedMapper<?>> getCache() {
+        return cache;
+    }
+
+    protected static GeneratedMapper<?> lookup(Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz.isArray()) {
+            return NONE;
+        }
+        try {
+            Class<?> mapperClass = Class.forName(mapperName(clazz), true, clazz.getClassLoader());
+            if (GeneratedMapper.class.isAssignableFrom(mapperClass)) {
+                log.debug("using generated mapper '{}'", mapperClass.getName());
+                return (GeneratedMapper<?>) ClassUtils.newInstance(mapperClass);
+            }
+        } catch (ClassNotFoundException e) {
+            log.debug("no generated mapper for '{}'", clazz.getName());
+        }
+        return NONE;
+    }
+
+    /**
+     * Maps each element of the query result with a generated mapper.
+     */
+    public static <T> List<T> evalToList(GeneratedMapper<T> mapper, Document document, Elements queryResult,
+            PlanCompiler compiler) {
+        List<T> results = new ArrayList<T>(queryResult.size());
+        for (Element element : queryResult) {
+            results.add(mapper.eval(document, new Elements(element), compiler));
+        }
+        return results;
+    }
+
+    /**
+     * Maps a nested target, with its generated mapper if any, or else with
+     * its plan from the compiler.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T eval(Document document, Elements queryResult, Class<T> clazz, PlanCompiler compiler) {
+        GeneratedMapper<T> mapper = find(clazz);
+        if (mapper != null) {
+            return mapper.eval(document, queryResult, compiler);
+        }
+        MappingPlan plan = compiler.getPlan(clazz);
+        return (T) EstivateEvaluator.eval(newEvalContext(document, queryResult, plan, compiler), plan);
+    }
+
+    /**
+     * Maps a nested list of targets, with their generated mapper if any, or
+     * else with their plan from the compiler.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> evalToList(Document document, Elements queryResult, Class<T> clazz,
+            PlanCompiler compiler) {
+        GeneratedMapper<T> mapper = find(clazz);
+        if (mapper != null) {
+            return evalToList(mapper, document, queryResult, compiler);
+        }
+        MappingPlan plan = compiler.getPlan(clazz);
+        return (List<T>) EstivateEvaluator.evalToList(newEvalContext(document, queryResult, plan, compiler), plan);
+    }
+
+    private static EvalContext newEvalContext(Document document, Elements queryResult, MappingPlan plan,
+            PlanCompiler compiler) {
+        EvalContext context = EstivateEvaluator.newEvalContext(document, queryResult, plan);
+        context.setCompiler(compiler);
+        return context;
+    }
+
+    /**
+     * The only element of the query result.
+     */
+    public static Element single(Elements queryResult) {
+        if (queryResult.size() != 1) {
+            throw new EstivateEvaluatorException(null,
+                    "Cant eval single Element value. Size of the selected DOM was '" + queryResult.size() + "'");
+        }
+        return queryResult.first();
+    }
+
+    /**
+     * Converts each value of a reduced list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> convertAll(List<String> values, Function<String, Object> function) {
+        List<T> results = new ArrayList<T>(values.size());
+        for (String value : values) {
+            results.add((T) function.apply(value));
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,346 @@
+package estivate.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.select.Elements;
+
+import estivate.core.Accessors.Instantiator;
+import estivate.core.ClassUtils;
+import estivate.core.Converter;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.EstivateEvaluator;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluatorException;
+import estivate.core.impl.PrimitiveConverter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Conversion of a reduced value to the type of its target.
+ * <p>
+ * The conversion depending only on the target type is chosen once at
+ * compilation, see {@link PlanCompiler}.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public abstract class ConvertStep {
+
+    public abstract void convert(EvalContext context, SimpleValueAST value);
+
+    /**
+     * @return true if a converted value can be assigned to several targets,
+     *         through {@link #copy(Object)}
+     */
+    public boolean isShareable(SimpleValueAST value) {
+        return false;
+    }
+
+    /**
+     * @return true if the converted value comes from the reduce step, false
+     *         if it is the document or the current query result
+     */
+    public boolean isReduced() {
+        return true;
+    }
+
+    /**
+     * @return true if the value is a nested target, mapped by its own plan
+     */
+    public boolean isNested(SimpleValueAST value) {
+        return false;
+    }
+
+    /**
+     * @return the converted value to assign to one more target
+     */
+    public Object copy(Object convertedValue) {
+        return convertedValue;
+    }
+
+    /**
+     * Assigns the root document
+     */
+    public static final ConvertStep DOCUMENT = new ConvertStep() {
+        @Override
+        public void convert(EvalContext context, SimpleValueAST value) {
+            context.setValue(value, context.getDocument());
+        }
+
+        @Override
+        public boolean isShareable(SimpleValueAST value) {
+            return true;
+        }
+
+        @Override
+        public boolean isReduced() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "DocumentConvert";
+        }
+    };
+
+    /**
+     * Assigns a copy of the current query result, list items reuse theirs
+     */
+    public static final ConvertStep ELEMENTS = new ConvertStep() {
+        @Override
+        public void convert(EvalContext context, SimpleValueAST value) {
+            context.setValue(value, new Elements(context.getQueryResult()));
+        }
+
+        @Override
+        public boolean isShareable(SimpleValueAST value) {
+            return true;
+        }
+
+        @Override
+        public boolean isReduced() {
+            return false;
+        }
+
+        @Override
+        public Object copy(Object convertedValue) {
+            return new Elements((Elements) convertedValue);
+        }
+
+        @Override
+        public String toString() {
+            return "ElementsConvert";
+        }
+    };
+
+    /**
+     * Assigns the only element of the current query result
+     */
+    public static final ConvertStep ELEMENT = new ConvertStep() {
+        @Override
+        public void convert(EvalContext context, SimpleValueAST value) {
+            Elements dom = context.getQueryResult();
+            if (dom.size() == 1) {
+                context.setValue(value, dom.first());
+            } else if (dom.isEmpty() && context.isOptional()) {
+                context.setAbsent(true);
+            } else {
+                throw new EstivateEvaluatorException(context,
+                        "Cant eval single Element value. Size of the selected DOM was '" + dom.size() + "'");
+            }
+        }
+
+        @Override
+        public boolean isShareable(SimpleValueAST value) {
+            return true;
+        }
+
+        @Override
+        public boolean isReduced() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "ElementConvert";
+        }
+    };
+
+    /**
+     * Convert with the {@link Converter} given by the Convert annotation.
+     */
+    /**
+     * Conversion by the converter of a {@link estivate.annotations.Convert}
+     * annotation, instantiated for each conversion unless it is
+     * {@link Converter.ThreadSafe}.
+     */
+    public static final class CustomConvertStep extends ConvertStep {
+
+        private final Class<? extends Converter> converterClass;
+
+        private final Instantiator<? extends Converter> instantiator;
+
+        /**
+         * Instance shared by the conversions, null if not thread safe
+         */
+        private final Converter converter;
+
+        private final String format;
+
+        public CustomConvertStep(Class<? extends Converter> converterClass, String format) {
+            this.converterClass = converterClass;
+            this.instantiator = ClassUtils.instantiator(converterClass);
+            this.converter = Converter.ThreadSafe.class.isAssignableFrom(converterClass)
+                    ? instantiator.newInstance() : null;
+            this.format = format;
+        }
+
+        @Override
+        public void convert(EvalContext context, SimpleValueAST value) {
+            Object currentValue = context.getValue(value);
+
+            Converter converter = this.converter != null ? this.converter : instantiator.newInstance();
+
+            Object convertedValue = converter.convert(currentValue, value.getRawClass(), format);
+
+            context.setValue(value, convertedValue);
+        }
+
+        @Override
+        public String toString() {
+            return "CustomConvert(" + converterClass.getSimpleName() + ", " + format + ")";
+        }
+    }
+
+    /**
+     * Primitive, primitive list, HTML string, recursive or direct assignment,
+     * depending on the reduced value.
+     */
+    public static final class DefaultConvertStep extends ConvertStep {
+
+        protected static final PrimitiveConverter primitiveConverter = new PrimitiveConverter();
+
+        private final boolean primitiveList;
+
+        private final PlanCompiler compiler;
+
+        private volatile MappingPlan nestedPlan;
+
+        public DefaultConvertStep(SimpleValueAST value) {
+            this(PlanCompiler.DEFAULT, value);
+        }
+
+        /**
+         * @param compiler
+         *            compiler of the nested plan
+         */
+        public DefaultConvertStep(PlanCompiler compiler, SimpleValueAST value) {
+            this.compiler = compiler;
+            this.primitiveList = value.isValueList() && primitiveConverter.isPrimitive(value.getTargetRawClass());
+        }
+
+        /**
+         * Primitives and strings only, other values can be modified by their
+         * target.
+         */
+        @Override
+        public boolean isShareable(SimpleValueAST value) {
+            Class<?> targetType = value.getRawClass();
+            return !value.isValueList() && value.getAstRef() == null
+                    && (targetType.equals(String.class) || primitiveConverter.isPrimitive(targetType));
+        }
+
+        @Override
+        public boolean isNested(SimpleValueAST value) {
+            return value.getAstRef() != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void convert(EvalContext context, SimpleValueAST value) {
+
+            Object currentValue = context.getValue(value);
+
+            Class<?> targetType = value.getRawClass();
+
+            // Primitive Convert
+
+            if (primitiveConverter.canConvert(currentValue, targetType)) {
+                if (context.isOptional() && isBlankNumber((String) currentValue, targetType)) {
+                    context.setAbsent(true);
+                    return;
+                }
+
+                log.debug("> Primitive convert");
+
+                Object convertedValue = primitiveConverter.convert(currentValue, targetType, "");
+
+                context.setValue(value, convertedValue);
+
+                log.debug("< Primitive convert");
+                return;
+            }
+
+            // Primitive List Convert
+
+            if (primitiveList) {
+                log.debug("> Primitive list convert");
+
+                List<Object> currentValueList = new ArrayList<Object>();
+
+                for (String valueString : (List<String>) currentValue) {
+
+                    Object convertedValue = primitiveConverter.convert(valueString, value.getTargetRawClass(), "");
+
+                    currentValueList.add(convertedValue);
+                }
+
+                context.setValue(value, currentValueList);
+
+                log.debug("< Primitive list convert");
+                return;
+            }
+
+            // HTML to String
+            if (currentValue.getClass().equals(Elements.class) && targetType.equals(String.class)) {
+                log.debug("> String convert");
+                context.setValue(value, currentValue.toString());
+                log.debug("< String convert");
+                return;
+            }
+
+            // Recursive assignment
+            if (currentValue.getClass().equals(Elements.class) && value.getAstRef() != null) {
+                log.debug("> recursive convert");
+                MappingPlan plan = nestedPlan(value);
+                if (value.isValueList()) {
+                    currentValue = EstivateEvaluator.evalToList(context, plan);
+                } else {
+                    currentValue = EstivateEvaluator.eval(context, plan);
+                }
+                context.setValue(value, currentValue);
+                log.debug("< recursive convert");
+                return;
+            }
+
+            // Direct assignment
+            if (ClassUtils.isAssignableValue(targetType, currentValue)) {
+                if (currentValue.getClass().equals(Elements.class)) {
+                    // the query result of a list item is reused
+                    currentValue = new Elements((Elements) currentValue);
+                }
+                context.setValue(value, currentValue);
+                return;
+            }
+        }
+
+        /**
+         * @return true if the value cant be parsed to the type, as a number
+         *         or a char
+         */
+        private static boolean isBlankNumber(String value, Class<?> targetType) {
+            return value.trim().isEmpty() && targetType != boolean.class && targetType != Boolean.class;
+        }
+
+        /**
+         * Nested plans are compiled on first use, this way cyclic models dont
+         * recurse.
+         */
+        private MappingPlan nestedPlan(SimpleValueAST value) {
+            MappingPlan plan = nestedPlan;
+            if (plan == null) {
+                plan = compiler.getPlan(value.getAst());
+                nestedPlan = plan;
+            }
+            return plan;
+        }
+
+        @Override
+        public String toString() {
+            return "DefaultConvert";
+        }
+    }
+
+}
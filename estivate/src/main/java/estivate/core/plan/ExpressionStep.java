@@ -0,0 +1,196 @@
+package estivate.core.plan;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import estivate.core.Accessors;
+import estivate.core.Accessors.Invoker;
+import estivate.core.Accessors.Setter;
+import estivate.core.ClassUtils;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.ast.lang.TitleReduceAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ExpressionEvaluator;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Compiled member expression: queries, then reduce and convert of each value,
+ * then assignment to the target.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public abstract class ExpressionStep {
+
+    protected final ExpressionAST ast;
+
+    protected final String memberName;
+
+    protected final boolean optional;
+
+    protected final QueryStep[] queries;
+
+    protected final ReduceStep reduce;
+
+    protected final ValueStep[] values;
+
+    /**
+     * Queries start from the root document
+     */
+    protected final boolean absolute;
+
+    /**
+     * The values depend only on the document, they are evaluated once per
+     * mapping and assigned to every target
+     */
+    protected final boolean invariant;
+
+    /**
+     * A value is a nested target or a list of them
+     */
+    protected final boolean nested;
+
+    protected ExpressionStep(ExpressionAST ast, String memberName, QueryStep[] queries, ReduceStep reduce,
+            ValueStep[] values) {
+        this.ast = ast;
+        this.memberName = memberName;
+        this.optional = ast.getOptional();
+        this.queries = queries;
+        this.reduce = reduce;
+        this.values = values;
+        this.absolute = ast.isAbsolute();
+        this.invariant = isInvariant(ast, queries, values);
+        this.nested = isNested(values);
+    }
+
+    private static boolean isNested(ValueStep[] values) {
+        for (ValueStep value : values) {
+            if (value.getConverter().isNested(value.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInvariant(ExpressionAST ast, QueryStep[] queries, ValueStep[] values) {
+        if (values.length == 0) {
+            return false;
+        }
+        for (ValueStep value : values) {
+            if (!value.getConverter().isShareable(value.getValue())) {
+                return false;
+            }
+            if (!ast.isAbsolute() && !value.getConverter().isReduced()) {
+                // the elements of the target
+                return false;
+            }
+        }
+        if (ast.isAbsolute()) {
+            // a table column depends on the table of the target
+            for (QueryStep query : queries) {
+                if (!(query.getAst() instanceof SelectQueryAST)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // the title is read from the document
+        return queries.length == 0 && ast.getReduce() instanceof TitleReduceAST;
+    }
+
+    /**
+     * Sets converted values to the target of the context.
+     * 
+     * @param context
+     *            the current context
+     */
+    public abstract void assign(EvalContext context);
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append("(").append(memberName);
+        for (QueryStep query : queries) {
+            sb.append(", ").append(query);
+        }
+        if (reduce != null) {
+            sb.append(", ").append(reduce);
+        }
+        for (ValueStep value : values) {
+            sb.append(", ").append(value);
+        }
+        if (invariant) {
+            sb.append(", invariant");
+        }
+        if (nested) {
+            sb.append(", nested");
+        }
+        return sb.append(")").toString();
+    }
+
+    public static final class FieldExpressionStep extends ExpressionStep {
+
+        private final Field field;
+
+        private final Setter setter;
+
+        public FieldExpressionStep(ExpressionAST ast, Field field, QueryStep[] queries, ReduceStep reduce,
+                ValueStep value) {
+            super(ast, field.getName(), queries, reduce, new ValueStep[] { value });
+            this.field = field;
+            this.setter = Accessors.setter(field);
+        }
+
+        @Override
+        public void assign(EvalContext context) {
+            ClassUtils.setValue(field, setter, context.getTarget(), context.getValue(values[0].getSlot()));
+        }
+    }
+
+    public static final class MethodExpressionStep extends ExpressionStep {
+
+        private final Method method;
+
+        private final Invoker invoker;
+
+        public MethodExpressionStep(ExpressionAST ast, Method method, QueryStep[] queries, ReduceStep reduce,
+                ValueStep[] values) {
+            super(ast, method.getName(), queries, reduce, values);
+            this.method = method;
+            this.invoker = Accessors.invoker(method);
+        }
+
+        @Override
+        public void assign(EvalContext context) {
+            Object[] arguments = new Object[values.length];
+
+            for (int i = 0; i < values.length; i++) {
+                arguments[i] = context.getValue(values[i].getSlot());
+            }
+
+            ClassUtils.setValue(method, invoker, context.getTarget(), arguments);
+        }
+    }
+
+    /**
+     * Expression of a type unknown by the compiler, evaluated by the
+     * {@link ExpressionEvaluator} registered for its type.
+     */
+    public static final class EvaluatorExpressionStep extends ExpressionStep {
+
+        private final ExpressionEvaluator evaluator;
+
+        public EvaluatorExpressionStep(ExpressionAST ast, ExpressionEvaluator evaluator) {
+            super(ast, null, new QueryStep[0], null, new ValueStep[0]);
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public void assign(EvalContext context) {
+            evaluator.evalExpression(context, ast);
+        }
+    }
+
+}
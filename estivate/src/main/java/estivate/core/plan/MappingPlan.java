@@ -0,0 +1,90 @@
+package estivate.core.plan;
+
+import estivate.core.Accessors.Instantiator;
+import estivate.core.ClassUtils;
+import estivate.core.ast.EstivateAST;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Executable form of an {@link EstivateAST}: every query, reduce, conversion
+ * and assignment is already bound to its implementation.
+ * <p>
+ * A plan is immutable and can be shared by concurrent evaluations.
+ * 
+ * @see PlanCompiler
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public final class MappingPlan {
+
+    private final EstivateAST ast;
+
+    private final Class<?> targetRawClass;
+
+    private final boolean optional;
+
+    /**
+     * Lists of the target mapped in parallel, null to let the mapper decide
+     */
+    private final Boolean parallel;
+
+    /**
+     * Minimum size of a parallel list, negative for the one of the mapper
+     */
+    private final int parallelThreshold;
+
+    private final Instantiator<?> instantiator;
+
+    /**
+     * Size of the value frame of an evaluation
+     */
+    private final int slotCount;
+
+    /**
+     * Class level queries
+     */
+    private final QueryStep[] queries;
+
+    private final ExpressionStep[] expressions;
+
+    /**
+     * First select queries of the expressions, null if not batched
+     */
+    private final SelectBatch selectBatch;
+
+    public MappingPlan(EstivateAST ast, int slotCount, QueryStep[] queries, ExpressionStep[] expressions) {
+        this.ast = ast;
+        this.targetRawClass = ast.getTargetRawClass();
+        this.optional = ast.isOptional();
+        this.parallel = ast.getParallel();
+        this.parallelThreshold = ast.getParallelThreshold();
+        this.instantiator = ClassUtils.instantiator(targetRawClass);
+        this.slotCount = slotCount;
+        this.queries = queries;
+        this.expressions = expressions;
+        this.selectBatch = SelectBatch.compile(expressions);
+    }
+
+    /**
+     * @return a new instance of the target class
+     */
+    public Object newInstance() {
+        return instantiator.newInstance();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MappingPlan(").append(targetRawClass.getName());
+        for (QueryStep query : queries) {
+            sb.append("\n  ").append(query);
+        }
+        for (ExpressionStep expression : expressions) {
+            sb.append("\n  ").append(expression);
+        }
+        return sb.append(")").toString();
+    }
+
+}
@@ -0,0 +1,419 @@
+package estivate.core.plan;
+
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import estivate.core.ClassCache;
+import estivate.core.ast.ConverterAST;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.FieldExpressionAST;
+import estivate.core.ast.MethodExpressionAST;
+import estivate.core.ast.QueryAST;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.CustomConverterAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.ast.parser.EstivateParser;
+import estivate.core.eval.EstivateEvaluator;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ExpressionEvaluator;
+import estivate.core.eval.EstivateEvaluator.QueryEvaluator;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import estivate.core.eval.EvaluatorRegistry;
+import estivate.core.plan.ExpressionStep.EvaluatorExpressionStep;
+import estivate.core.plan.ExpressionStep.FieldExpressionStep;
+import estivate.core.plan.ExpressionStep.MethodExpressionStep;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Compiles an {@link EstivateAST} into a {@link MappingPlan}.
+ * <p>
+ * Each query and reduce is bound once to the evaluator of its AST type, and
+ * each value to its conversion. Evaluators are resolved by AST class in the
+ * {@link EvaluatorRegistry} of the compiler.
+ * <p>
+ * {@link #DEFAULT} compiles the ASTs of {@link EstivateParser#DEFAULT} with
+ * {@link EstivateEvaluator#REGISTRY}, the static methods use it. Other
+ * instances have their own parser, evaluators and plans.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Slf4j
+public class PlanCompiler {
+
+    @SuppressWarnings("deprecation")
+    public static final PlanCompiler DEFAULT = new PlanCompiler(EstivateParser.DEFAULT, EstivateEvaluator.REGISTRY,
+            EstivateEvaluator.QUERY_EVALUATORS, EstivateEvaluator.REDUCE_EVALUATORS,
+            EstivateEvaluator.EXPRESSION_EVALUATORS);
+
+    @Getter
+    private final EstivateParser parser;
+
+    @Getter
+    private final EvaluatorRegistry registry;
+
+    /**
+     * Plans of already compiled classes.
+     */
+    private final ClassCache<MappingPlan> cache = new ClassCache<MappingPlan>() {
+        @Override
+        protected MappingPlan compute(Class<?> clazz) {
+            return compilePlan(parser.getAST(clazz));
+        }
+    };
+
+    /*
+     * Types not registered at compilation: registered later, or evaluated by
+     * the deprecated evaluator lists.
+     */
+
+    private final QueryEvaluator scanQueryEvaluator;
+
+    private final ReduceEvaluator scanReduceEvaluator;
+
+    private final ExpressionEvaluator scanExpressionEvaluator;
+
+    /**
+     * @param parser
+     *            parser of the target classes
+     * @param registry
+     *            evaluators by AST class
+     * @param queryEvaluators
+     *            evaluators of the query types missing from the registry,
+     *            each one checks the type of the node
+     * @param reduceEvaluators
+     *            same for reduce types
+     * @param expressionEvaluators
+     *            same for expression types
+     */
+    public PlanCompiler(EstivateParser parser, final EvaluatorRegistry registry,
+            final List<QueryEvaluator> queryEvaluators, final List<ReduceEvaluator> reduceEvaluators,
+            final List<ExpressionEvaluator> expressionEvaluators) {
+        this.parser = parser;
+        this.registry = registry;
+        this.scanQueryEvaluator = new QueryEvaluator() {
+            public void evalQuery(EvalContext context, QueryAST query) {
+                QueryEvaluator evaluator = registry.queryEvaluator(query.getClass());
+                if (evaluator != null) {
+                    evaluator.evalQuery(context, query);
+                    return;
+                }
+                for (QueryEvaluator eval : queryEvaluators) {
+                    eval.evalQuery(context, query);
+                }
+            }
+        };
+        this.scanReduceEvaluator = new ReduceEvaluator() {
+            public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST valueAST) {
+                ReduceEvaluator evaluator = registry.reduceEvaluator(reduce.getClass());
+                if (evaluator != null) {
+                    evaluator.evalReduce(context, reduce, valueAST);
+                    return;
+                }
+                for (ReduceEvaluator eval : reduceEvaluators) {
+                    eval.evalReduce(context, reduce, valueAST);
+                }
+            }
+        };
+        this.scanExpressionEvaluator = new ExpressionEvaluator() {
+            public void evalExpression(EvalContext context, ExpressionAST expression) {
+                ExpressionEvaluator evaluator = registry.expressionEvaluator(expression.getClass());
+                if (evaluator != null) {
+                    evaluator.evalExpression(context, expression);
+                    return;
+                }
+                for (ExpressionEvaluator eval : expressionEvaluators) {
+                    eval.evalExpression(context, expression);
+                }
+            }
+        };
+    }
+
+    /**
+     * Compile the class once, then returns the cached plan.
+     * 
+     * @param clazz
+     *            the target class
+     * @return the shared plan of the class
+     */
+    public MappingPlan getPlan(Class<?> clazz) {
+        return cache.get(clazz);
+    }
+
+    /**
+     * Returns the cached plan when the AST is the cached one of its class,
+     * compile it otherwise.
+     * 
+     * @param ast
+     *            the AST to compile
+     * @return the plan of the AST
+     */
+    public MappingPlan getPlan(EstivateAST ast) {
+        MappingPlan plan = cache.get(ast.getTargetRawClass());
+        if (plan.getAst() == ast) {
+            return plan;
+        }
+        return compilePlan(ast);
+    }
+
+    public ClassCache<MappingPlan> getPlanCache() {
+        return cache;
+    }
+
+    public MappingPlan compilePlan(EstivateAST ast) {
+        ExpressionStep[] expressions = compileExpressionSteps(ast.getExpressions());
+
+        MappingPlan plan = new MappingPlan(ast, slotCount(expressions), compileQuerySteps(ast.getQueries()),
+                expressions);
+
+        log.debug("Plan of '{}' is {}", ast.getTargetRawClass(), plan);
+        if (plan.getSelectBatch() != null && plan.getSelectBatch().isFactored()) {
+            log.debug("Selectors shared in '{}':\n{}", ast.getTargetRawClass(), plan.getSelectBatch().report());
+        }
+
+        return plan;
+    }
+
+    /**
+     * Each value of the expressions has its own slot in the value frame, in
+     * order. Each first query of the {@link SelectBatch} has its own batch
+     * slot, in order.
+     */
+    public ExpressionStep[] compileExpressionSteps(List<ExpressionAST> expressions) {
+        ExpressionStep[] steps = new ExpressionStep[expressions.size()];
+        int slot = 0;
+        int batchSlot = 0;
+        for (int i = 0; i < steps.length; i++) {
+            ExpressionAST expression = expressions.get(i);
+            steps[i] = compileExpressionStep(expression, slot, SelectBatch.isBatched(expression) ? batchSlot : -1);
+            slot += steps[i].getValues().length;
+            // not taken by an expression of an evaluator
+            if (steps[i].getQueries().length > 0 && steps[i].getQueries()[0].getBatchSlot() >= 0) {
+                batchSlot++;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Compiles an expression evaluated alone, its values from the first slot
+     * of the frame.
+     */
+    public ExpressionStep compileExpressionStep(ExpressionAST expression) {
+        return compileExpressionStep(expression, 0);
+    }
+
+    /**
+     * @param firstSlot
+     *            slot of the first value of the expression in the value frame
+     */
+    public ExpressionStep compileExpressionStep(ExpressionAST expression, int firstSlot) {
+        return compileExpressionStep(expression, firstSlot, -1);
+    }
+
+    /**
+     * @param firstSlot
+     *            slot of the first value of the expression in the value frame
+     * @param batchSlot
+     *            batch slot of the first query of the expression, -1 if
+     *            evaluated alone
+     */
+    public ExpressionStep compileExpressionStep(ExpressionAST expression, int firstSlot, int batchSlot) {
+        if (expression instanceof FieldExpressionAST) {
+            FieldExpressionAST fieldExpression = (FieldExpressionAST) expression;
+
+            return new FieldExpressionStep(expression, fieldExpression.getField(),
+                    compileQuerySteps(expression.getQueries(), batchSlot), compileReduceStep(expression.getReduce()),
+                    compileValueStep(expression.getConverter(), fieldExpression.getValue(), firstSlot));
+        }
+        if (expression instanceof MethodExpressionAST) {
+            MethodExpressionAST methodExpression = (MethodExpressionAST) expression;
+
+            List<SimpleValueAST> values = methodExpression.getValues().getValues();
+            ValueStep[] valueSteps = new ValueStep[values.size()];
+            for (int i = 0; i < valueSteps.length; i++) {
+                valueSteps[i] = compileValueStep(expression.getConverter(), values.get(i), firstSlot + i);
+            }
+
+            return new MethodExpressionStep(expression, methodExpression.getMethod(),
+                    compileQuerySteps(expression.getQueries(), batchSlot), compileReduceStep(expression.getReduce()),
+                    valueSteps);
+        }
+        ExpressionEvaluator evaluator = registry.expressionEvaluator(expression.getClass());
+        if (evaluator == null) {
+            evaluator = scanExpressionEvaluator;
+        }
+        return new EvaluatorExpressionStep(expression, evaluator);
+    }
+
+    public QueryStep[] compileQuerySteps(List<QueryAST> queries) {
+        return compileQuerySteps(queries, -1);
+    }
+
+    /**
+     * @param batchSlot
+     *            batch slot of the first query, -1 if evaluated alone
+     */
+    public QueryStep[] compileQuerySteps(List<QueryAST> queries, int batchSlot) {
+        QueryStep[] steps = new QueryStep[queries.size()];
+        for (int i = 0; i < steps.length; i++) {
+            QueryAST query = queries.get(i);
+
+            QueryEvaluator evaluator = registry.queryEvaluator(query.getClass());
+            if (evaluator == null) {
+                evaluator = scanQueryEvaluator;
+            }
+
+            steps[i] = new QueryStep(query, evaluator, i == 0 ? batchSlot : -1);
+        }
+        return steps;
+    }
+
+    public ReduceStep compileReduceStep(ReduceAST reduce) {
+        ReduceEvaluator evaluator = registry.reduceEvaluator(reduce.getClass());
+        if (evaluator == null) {
+            evaluator = scanReduceEvaluator;
+        }
+        return new ReduceStep(reduce, evaluator);
+    }
+
+    public ValueStep compileValueStep(ConverterAST converter, SimpleValueAST value) {
+        return compileValueStep(converter, value, 0);
+    }
+
+    /**
+     * @param slot
+     *            index of the value in the value frame
+     */
+    public ValueStep compileValueStep(ConverterAST converter, SimpleValueAST value, int slot) {
+        Class<?> targetType = value.getRawClass();
+
+        // Standard assignment
+        if (targetType.equals(Document.class)) {
+            return new ValueStep(value, ConvertStep.DOCUMENT, slot);
+        }
+        if (targetType.equals(Elements.class)) {
+            return new ValueStep(value, ConvertStep.ELEMENTS, slot);
+        }
+        if (targetType.equals(Element.class)) {
+            return new ValueStep(value, ConvertStep.ELEMENT, slot);
+        }
+
+        // Custom Convert
+        if (converter instanceof CustomConverterAST) {
+            CustomConverterAST customConverter = (CustomConverterAST) converter;
+
+            return new ValueStep(value,
+                    new ConvertStep.CustomConvertStep(customConverter.getConverterClass(), customConverter.getFormat()),
+                    slot);
+        }
+
+        return new ValueStep(value, new ConvertStep.DefaultConvertStep(this, value), slot);
+    }
+
+    /**
+     * Invalidate the plan of the class and its AST in the parser cache.
+     * 
+     * @param clazz
+     *            the target class
+     */
+    public void invalidatePlan(Class<?> clazz) {
+        parser.getASTCache().invalidate(clazz);
+        cache.invalidate(clazz);
+    }
+
+    /**
+     * Clear all plans and the parser cache.
+     */
+    public void clearPlans() {
+        parser.getASTCache().clear();
+        cache.clear();
+    }
+
+    /**
+     * @see #getPlan(Class)
+     */
+    public static MappingPlan plan(Class<?> clazz) {
+        return DEFAULT.getPlan(clazz);
+    }
+
+    /**
+     * @see #getPlan(EstivateAST)
+     */
+    public static MappingPlan plan(EstivateAST ast) {
+        return DEFAULT.getPlan(ast);
+    }
+
+    /**
+     * @see #invalidatePlan(Class)
+     */
+    public static void invalidate(Class<?> clazz) {
+        DEFAULT.invalidatePlan(clazz);
+    }
+
+    /**
+     * @see #clearPlans()
+     */
+    public static void clearCache() {
+        DEFAULT.clearPlans();
+    }
+
+    /**
+     * Report of the selectors evaluated once for several members of the
+     * class, see {@link SelectBatch#report()}.
+     * 
+     * @param clazz
+     *            the target class
+     * @return the report
+     */
+    public static String selectorReport(Class<?> clazz) {
+        SelectBatch batch = plan(clazz).getSelectBatch();
+        return batch == null ? "No selector shared\n" : batch.report();
+    }
+
+    public static ClassCache<MappingPlan> getCache() {
+        return DEFAULT.cache;
+    }
+
+    public static MappingPlan compile(EstivateAST ast) {
+        return DEFAULT.compilePlan(ast);
+    }
+
+    public static ExpressionStep[] compileExpressions(List<ExpressionAST> expressions) {
+        return DEFAULT.compileExpressionSteps(expressions);
+    }
+
+    public static ExpressionStep compileExpression(ExpressionAST expression) {
+        return DEFAULT.compileExpressionStep(expression);
+    }
+
+    public static QueryStep[] compileQueries(List<QueryAST> queries) {
+        return DEFAULT.compileQuerySteps(queries);
+    }
+
+    public static ReduceStep compileReduce(ReduceAST reduce) {
+        return DEFAULT.compileReduceStep(reduce);
+    }
+
+    public static ValueStep compileValue(ConverterAST converter, SimpleValueAST value) {
+        return DEFAULT.compileValueStep(converter, value);
+    }
+
+    /**
+     * @return size of the value frame of the expressions
+     */
+    public static int slotCount(ExpressionStep[] expressions) {
+        int slotCount = 0;
+        for (ExpressionStep expression : expressions) {
+            slotCount += expression.getValues().length;
+        }
+        return slotCount;
+    }
+
+}
@@ -0,0 +1,51 @@
+package estivate.core.plan;
+
+import estivate.core.ast.QueryAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.QueryEvaluator;
+import lombok.Getter;
+
+/**
+ * Query bound to its evaluator.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public final class QueryStep {
+
+    private final QueryAST ast;
+
+    private final QueryEvaluator evaluator;
+
+    /**
+     * Index of the query in the select batch of its class, given by the plan
+     * compilation, -1 if evaluated alone
+     */
+    private final int batchSlot;
+
+    public QueryStep(QueryAST ast, QueryEvaluator evaluator) {
+        this(ast, evaluator, -1);
+    }
+
+    public QueryStep(QueryAST ast, QueryEvaluator evaluator, int batchSlot) {
+        this.ast = ast;
+        this.evaluator = evaluator;
+        this.batchSlot = batchSlot;
+    }
+
+    public void eval(EvalContext context) {
+        context.setBatchSlot(batchSlot);
+        try {
+            evaluator.evalQuery(context, ast);
+        } finally {
+            context.setBatchSlot(-1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStep(" + ast + ")";
+    }
+
+}
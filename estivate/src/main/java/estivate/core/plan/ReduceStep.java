@@ -0,0 +1,36 @@
+package estivate.core.plan;
+
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import lombok.Getter;
+
+/**
+ * Reduce bound to its evaluator.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public final class ReduceStep {
+
+    private final ReduceAST ast;
+
+    private final ReduceEvaluator evaluator;
+
+    public ReduceStep(ReduceAST ast, ReduceEvaluator evaluator) {
+        this.ast = ast;
+        this.evaluator = evaluator;
+    }
+
+    public void eval(EvalContext context, SimpleValueAST value) {
+        evaluator.evalReduce(context, ast, value);
+    }
+
+    @Override
+    public String toString() {
+        return "ReduceStep(" + ast + ")";
+    }
+
+}
@@ -0,0 +1,565 @@
+package estivate.core.plan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import estivate.core.DocumentIndex;
+import estivate.core.DocumentIndex.Key;
+import estivate.core.SelectionCache;
+import estivate.core.Selectors;
+import estivate.core.Selectors.Split;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import lombok.Getter;
+
+/**
+ * <p>
+ * First select queries of the members of a class, evaluated together from
+ * their common root instead of one traversal each.
+ * <p>
+ * Identical queries are evaluated once. A leading part shared by several
+ * queries ('div#main > section .price' and 'div#main > section .name') is
+ * evaluated once, then the last compound selector of each query is matched
+ * below its elements.
+ * <p>
+ * The other queries are evaluated in one traversal: each element is only
+ * matched against the queries whose last compound selector starts with its
+ * tag, id or one of its classes, and the queries without such selector. When
+ * the evaluation has a {@link DocumentIndex}, the queries it answers are
+ * taken from it.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public final class SelectBatch {
+
+    /**
+     * Queries of the batch by batch slot
+     */
+    @Getter
+    private final SelectQueryAST[] queries;
+
+    private final String[] members;
+
+    /**
+     * Part of each batch slot
+     */
+    private final int[] slotParts;
+
+    /**
+     * Distinct queries and shared parts, each one after its prefix
+     */
+    private final Part[] parts;
+
+    /**
+     * True if a query or a part is shared
+     */
+    @Getter
+    private final boolean factored;
+
+    private final Matcher all;
+
+    private final Matcher unindexed;
+
+    private SelectBatch(SelectQueryAST[] queries, String[] members) {
+        this.queries = queries;
+        this.members = members;
+        this.slotParts = new int[queries.length];
+
+        // distinct queries having each query or prefix
+        Map<String, Integer> uses = new HashMap<String, Integer>();
+        Set<String> distinct = new HashSet<String>();
+        for (SelectQueryAST query : queries) {
+            String queryString = query.getQueryString().trim();
+            if (distinct.add(queryString)) {
+                for (String prefix = queryString; prefix != null; prefix = prefix(prefix)) {
+                    uses.put(prefix, uses.containsKey(prefix) ? uses.get(prefix) + 1 : 1);
+                }
+            }
+        }
+
+        Map<String, Part> parts = new LinkedHashMap<String, Part>();
+        for (int slot = 0; slot < queries.length; slot++) {
+            Part part = part(queries[slot].getQueryString().trim(), uses, parts);
+            part.slots++;
+            slotParts[slot] = part.id;
+        }
+        this.parts = parts.values().toArray(new Part[parts.size()]);
+
+        boolean factored = false;
+        List<Part> matched = new ArrayList<Part>();
+        List<Part> unindexed = new ArrayList<Part>();
+        for (Part part : this.parts) {
+            factored |= part.slots > 1 || part.dependents > 0;
+            if (part.parent == null) {
+                matched.add(part);
+                if (part.indexQuery == null) {
+                    unindexed.add(part);
+                }
+            }
+        }
+        this.factored = factored;
+        this.all = new Matcher(matched);
+        this.unindexed = new Matcher(unindexed);
+    }
+
+    /**
+     * The part of the query, evaluated from its prefix if a prefix is shared
+     * by more queries than the query itself.
+     */
+    private static Part part(String query, Map<String, Integer> uses, Map<String, Part> parts) {
+        Part part = parts.get(query);
+        if (part != null) {
+            return part;
+        }
+
+        Part parent = null;
+        Split split = null;
+        for (String prefix = prefix(query); prefix != null; prefix = prefix(prefix)) {
+            if (uses.get(prefix) > uses.get(query)) {
+                split = Selectors.split(query);
+                parent = part(split.getPrefix(), uses, parts);
+                parent.dependents++;
+                break;
+            }
+        }
+
+        part = new Part(parts.size(), query, parent, split);
+        parts.put(query, part);
+        return part;
+    }
+
+    /**
+     * @return the query before its last compound selector, null if its last
+     *         compound selector can not be matched below the elements of the
+     *         prefix
+     */
+    private static String prefix(String query) {
+        Split split = Selectors.split(query);
+        if (split == null || !isElementLocal(split.getLast())) {
+            return null;
+        }
+        try {
+            Selectors.compile(split.getPrefix());
+            Selectors.compile(split.getLast());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return split.getPrefix();
+    }
+
+    /**
+     * @return true if matching the compound selector does not depend on the
+     *         root of the query
+     */
+    private static boolean isElementLocal(String compound) {
+        String lowerCase = compound.toLowerCase(Locale.ENGLISH);
+        return !(lowerCase.contains(":root") || lowerCase.contains(":has") || lowerCase.contains(":not")
+                || lowerCase.contains(":is") || Selectors.isMutating(lowerCase));
+    }
+
+    /**
+     * @param expression
+     *            an expression of a class
+     * @return true if the first query of the expression can be evaluated
+     *         with the batch of its class
+     */
+    public static boolean isBatched(ExpressionAST expression) {
+        if (expression.isAbsolute() || expression.getQueries().isEmpty()
+                || !(expression.getQueries().get(0) instanceof SelectQueryAST)) {
+            return false;
+        }
+        SelectQueryAST query = (SelectQueryAST) expression.getQueries().get(0);
+        return query.getEvaluator() != null && !Selectors.isMutating(query.getQueryString());
+    }
+
+    /**
+     * Gathers the first select query of each expression, by the batch slot
+     * given by the plan compilation.
+     *
+     * @param expressions
+     *            expressions of a class
+     * @return the batch, null if no query
+     */
+    public static SelectBatch compile(ExpressionStep[] expressions) {
+        List<SelectQueryAST> queries = new ArrayList<SelectQueryAST>();
+        List<String> members = new ArrayList<String>();
+        for (ExpressionStep expression : expressions) {
+            QueryStep[] steps = expression.getQueries();
+            if (steps.length > 0 && steps[0].getBatchSlot() >= 0) {
+                queries.add((SelectQueryAST) steps[0].getAst());
+                members.add(expression.getMemberName());
+            }
+        }
+        if (queries.isEmpty()) {
+            return null;
+        }
+        return new SelectBatch(queries.toArray(new SelectQueryAST[queries.size()]),
+                members.toArray(new String[members.size()]));
+    }
+
+    /**
+     * Selects the elements of every query of the batch from the root.
+     *
+     * @param roots
+     *            the current query result
+     * @param documentIndex
+     *            index of the document, can be null
+     * @param cache
+     *            selections of the mapping, used when it has every query of
+     *            the batch, can be null
+     * @return the elements by batch slot, null if not worth a batch
+     */
+    public Elements[] select(Elements roots, DocumentIndex documentIndex, SelectionCache cache) {
+        Matcher matcher = documentIndex != null ? unindexed : all;
+        if (roots.size() != 1 || (!factored && matcher.size < 2)) {
+            return null;
+        }
+        Element root = roots.get(0);
+
+        Elements[] slots = new Elements[queries.length];
+        if (cache != null && cached(root, cache, slots)) {
+            return slots;
+        }
+
+        Elements[] selected = new Elements[parts.length];
+        if (documentIndex != null) {
+            for (Part part : parts) {
+                if (part.parent == null && part.indexQuery != null) {
+                    selected[part.id] = documentIndex.select(part.indexQuery, root, part.evaluator);
+                    if (selected[part.id] == null) {
+                        return null;
+                    }
+                }
+            }
+        }
+        matcher.select(root, selected);
+
+        for (Part part : parts) {
+            if (part.parent != null) {
+                selected[part.id] = part.below(root, selected[part.parent.id], documentIndex);
+            }
+        }
+
+        if (cache != null) {
+            for (Part part : parts) {
+                cache.put(root, part.evaluator, selected[part.id]);
+            }
+        }
+
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = selected[slotParts[slot]];
+        }
+        return slots;
+    }
+
+    /**
+     * Selects the elements of every query of the batch from each item of a
+     * list. The queries answered by the document index are evaluated once
+     * for all the items, each element being given to the item it is inside.
+     *
+     * @param items
+     *            the items, in document order
+     * @param documentIndex
+     *            index of the document
+     * @param cache
+     *            selections of the mapping, can be null
+     * @return the elements by item and batch slot, null if the items are not
+     *         in document order or one is inside another one
+     */
+    public Elements[][] selectAll(Elements items, DocumentIndex documentIndex, SelectionCache cache) {
+        if (items.size() < 2 || documentIndex.disjointNumbers(items) == null) {
+            return null;
+        }
+
+        Elements[][] selected = new Elements[items.size()][parts.length];
+        for (Part part : parts) {
+            if (part.parent == null && part.indexQuery != null) {
+                Elements[] all = documentIndex.selectAll(part.indexQuery, items, part.evaluator);
+                for (int item = 0; item < selected.length; item++) {
+                    selected[item][part.id] = all != null ? all[item]
+                            : documentIndex.select(part.indexQuery, items.get(item), part.evaluator);
+                }
+            }
+        }
+
+        Elements[][] slots = new Elements[items.size()][queries.length];
+        for (int item = 0; item < selected.length; item++) {
+            Element root = items.get(item);
+
+            unindexed.select(root, selected[item]);
+            for (Part part : parts) {
+                if (part.parent != null) {
+                    selected[item][part.id] = part.below(root, selected[item][part.parent.id], documentIndex);
+                }
+                if (cache != null) {
+                    cache.put(root, part.evaluator, selected[item][part.id]);
+                }
+            }
+            for (int slot = 0; slot < queries.length; slot++) {
+                slots[item][slot] = selected[item][slotParts[slot]];
+            }
+        }
+        return slots;
+    }
+
+    private boolean cached(Element root, SelectionCache cache, Elements[] slots) {
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = cache.get(root, parts[slotParts[slot]].evaluator);
+            if (slots[slot] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the queries and parts evaluated once for several members
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Part part : parts) {
+            if (part.slots + part.dependents < 2) {
+                continue;
+            }
+            sb.append("'").append(part.query).append("' evaluated once for");
+            for (int slot = 0; slot < queries.length; slot++) {
+                for (Part p = parts[slotParts[slot]]; p != null; p = p.parent) {
+                    if (p == part) {
+                        sb.append("\n  ").append(members[slot]);
+                        if (p.id != slotParts[slot]) {
+                            sb.append(" '").append(queries[slot].getQueryString().trim()).append("'");
+                        }
+                    }
+                }
+            }
+            sb.append("\n");
+        }
+        return sb.length() == 0 ? "No selector shared\n" : sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "SelectBatch(" + queries.length + " queries, " + parts.length + " parts)";
+    }
+
+    /**
+     * A distinct query, or a prefix shared by queries
+     */
+    private static final class Part {
+
+        private final int id;
+
+        private final String query;
+
+        private final Evaluator evaluator;
+
+        private final DocumentIndex.Query indexQuery;
+
+        /**
+         * The shared prefix this part is evaluated from, null if matched from
+         * the root
+         */
+        private final Part parent;
+
+        private final boolean child;
+
+        /**
+         * The last compound selector, matched below the elements of the
+         * parent
+         */
+        private final Evaluator last;
+
+        private int slots;
+
+        private int dependents;
+
+        private Part(int id, String query, Part parent, Split split) {
+            this.id = id;
+            this.query = query;
+            this.evaluator = Selectors.compile(query);
+            this.indexQuery = DocumentIndex.Query.parse(query);
+            this.parent = parent;
+            this.child = split != null && split.isChild();
+            this.last = split == null ? null : Selectors.compile(split.getLast());
+        }
+
+        /**
+         * Elements below the prefix elements matching the last compound
+         * selector, in document order.
+         */
+        private Elements below(final Element root, Elements prefixElements, DocumentIndex documentIndex) {
+            final Elements found = new Elements();
+
+            final IdentityHashMap<Element, Boolean> parents = child ? new IdentityHashMap<Element, Boolean>()
+                    : null;
+            if (child) {
+                for (Element element : prefixElements) {
+                    parents.put(element, Boolean.TRUE);
+                }
+            }
+
+            Element traversed = null;
+            for (final Element prefixElement : prefixElements) {
+                if (traversed != null && isInside(prefixElement, traversed, documentIndex)) {
+                    continue;
+                }
+                traversed = prefixElement;
+                NodeTraversor.traverse(new NodeVisitor() {
+                    public void head(Node node, int depth) {
+                        if (node != prefixElement && node instanceof Element) {
+                            Element element = (Element) node;
+                            if ((parents == null || parents.containsKey(element.parent()))
+                                    && last.matches(root, element)) {
+                                found.add(element);
+                            }
+                        }
+                    }
+
+                    public void tail(Node node, int depth) {
+                    }
+                }, prefixElement);
+            }
+            return found;
+        }
+
+        private static boolean isInside(Element element, Element ancestor, DocumentIndex documentIndex) {
+            if (documentIndex != null) {
+                return documentIndex.isInside(element, ancestor);
+            }
+            for (Element e = element; e != null; e = e.parent()) {
+                if (e == ancestor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Dispatches elements to the parts they may match
+     */
+    private static final class Matcher {
+
+        private final int size;
+
+        private final Evaluator[] evaluators;
+
+        private final int[] ids;
+
+        /**
+         * Parts matching any element
+         */
+        private final int[] generic;
+
+        private final Map<String, int[]> byId = new HashMap<String, int[]>();
+
+        private final Map<String, int[]> byClass = new HashMap<String, int[]>();
+
+        private final Map<String, int[]> byTag = new HashMap<String, int[]>();
+
+        private Matcher(List<Part> parts) {
+            this.size = parts.size();
+            this.evaluators = new Evaluator[size];
+            this.ids = new int[size];
+
+            List<Integer> generic = new ArrayList<Integer>();
+            for (int i = 0; i < size; i++) {
+                Part part = parts.get(i);
+                evaluators[i] = part.evaluator;
+                ids[i] = part.id;
+
+                Key key = part.indexQuery == null ? null : part.indexQuery.getMatchKey();
+                if (key == null) {
+                    generic.add(i);
+                } else if (key.getKind() == DocumentIndex.Kind.ID) {
+                    add(byId, key.getKey(), i);
+                } else if (key.getKind() == DocumentIndex.Kind.CLASS) {
+                    add(byClass, key.getKey(), i);
+                } else {
+                    add(byTag, key.getKey(), i);
+                }
+            }
+            this.generic = new int[generic.size()];
+            for (int i = 0; i < this.generic.length; i++) {
+                this.generic[i] = generic.get(i);
+            }
+        }
+
+        private static void add(Map<String, int[]> dispatch, String key, int part) {
+            int[] parts = dispatch.get(key);
+            if (parts == null) {
+                parts = new int[] { part };
+            } else {
+                int[] added = new int[parts.length + 1];
+                System.arraycopy(parts, 0, added, 0, parts.length);
+                added[parts.length] = part;
+                parts = added;
+            }
+            dispatch.put(key, parts);
+        }
+
+        private void select(final Element root, final Elements[] selected) {
+            if (size == 0) {
+                return;
+            }
+            for (int id : ids) {
+                selected[id] = new Elements();
+            }
+
+            NodeTraversor.traverse(new NodeVisitor() {
+                public void head(Node node, int depth) {
+                    if (node instanceof Element) {
+                        Element element = (Element) node;
+
+                        match(generic, root, element, selected);
+                        match(byTag.get(element.normalName()), root, element, selected);
+                        if (!byId.isEmpty()) {
+                            String id = element.id();
+                            if (id.length() > 0) {
+                                match(byId.get(id), root, element, selected);
+                            }
+                        }
+                        if (!byClass.isEmpty() && element.hasAttr("class")) {
+                            for (String className : element.classNames()) {
+                                match(byClass.get(className.toLowerCase(Locale.ENGLISH)), root, element,
+                                        selected);
+                            }
+                        }
+                    }
+                }
+
+                public void tail(Node node, int depth) {
+                }
+            }, root);
+        }
+
+        private void match(int[] parts, Element root, Element element, Elements[] selected) {
+            if (parts == null) {
+                return;
+            }
+            for (int part : parts) {
+                Elements found = selected[ids[part]];
+                // an element is dispatched once by class, whatever its case
+                if ((found.isEmpty() || found.last() != element) && evaluators[part].matches(root, element)) {
+                    found.add(element);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package estivate.core.plan;
+
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import lombok.Getter;
+
+/**
+ * Value of an expression bound to its conversion and to its slot in the value
+ * frame.
+ * 
+ * @author Benoit Theunissen
+ *
+ */
+@Getter
+public final class ValueStep {
+
+    private final SimpleValueAST value;
+
+    private final ConvertStep converter;
+
+    /**
+     * Index of the value in the value frame of the evaluation
+     */
+    private final int slot;
+
+    public ValueStep(SimpleValueAST value, ConvertStep converter) {
+        this(value, converter, 0);
+    }
+
+    public ValueStep(SimpleValueAST value, ConvertStep converter, int slot) {
+        this.value = value;
+        this.converter = converter;
+        this.slot = slot;
+    }
+
+    public void reduce(EvalContext context, ReduceStep reduce) {
+        reduce.eval(context, value);
+    }
+
+    public void convert(EvalContext context) {
+        converter.convert(context, value);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueStep(" + value.getType() + ", " + converter + ", " + slot + ")";
+    }
+
+}
@@ -0,0 +1,36 @@
+package estivate.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * Executors of the batches of documents, Java 21 version of the multi-release
+ * jar.
+ * <p>
+ * Each document runs on its own virtual thread: a blocking read of its stream
+ * releases the carrier thread to the other documents.
+ *
+ * @author Benoit Theunissen
+ *
+ */
+public class BatchExecutors {
+
+    /**
+     * @return true if documents run on virtual threads
+     */
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * @param parallelism
+     *            unused, the documents in flight of the batch bound the
+     *            number of virtual threads
+     * @return an executor starting a virtual thread per document
+     */
+    public static ExecutorService newPerDocumentExecutor(int parallelism) {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+}
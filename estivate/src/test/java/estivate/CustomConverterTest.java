@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jsoup.select.Elements;
 import org.junit.Assert;
@@ -12,6 +13,7 @@ import org.junit.Test;
 import estivate.annotations.Convert;
 import estivate.annotations.Text;
 import estivate.converter.DateConvertor;
+import estivate.core.Converter;
 import estivate.converter.RegexExtractorConvertor;
 import estivate.converter.UrlParameterExtractor;
 import lombok.Data;
@@ -45,6 +47,17 @@ public class CustomConverterTest extends EstivateTest {
         assertEquals(new int[] { 12, 345, 6789 }, result.getIntegers());
     }
 
+    @Test
+    public void converterPerConversion() throws IOException {
+
+        CountingConverter.instances.set(0);
+
+        mapper.map(read("/converter/u3.html"), ResultCount.class);
+        mapper.map(read("/converter/u3.html"), ResultCount.class);
+
+        Assert.assertEquals(4, CountingConverter.instances.get());
+    }
+
     private void assertEquals(int[] expected, int[] current) {
         Assert.assertEquals(expected.length, current.length);
 
@@ -83,4 +96,41 @@ public class CustomConverterTest extends EstivateTest {
 
     }
 
+    @Data
+    public static class ResultCount {
+
+        @Convert(CountingConverter.class)
+        @Text(select = "#thatNumber")
+        public String number1;
+
+        @Convert(CountingConverter.class)
+        @Text(select = "#thatNumber")
+        public String number2;
+
+    }
+
+    /**
+     * Stateful converter, not shared between conversions
+     */
+    public static class CountingConverter implements Converter {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        private boolean used;
+
+        public CountingConverter() {
+            instances.incrementAndGet();
+        }
+
+        public boolean canConvert(Object value, Class<?> targetType) {
+            return true;
+        }
+
+        public Object convert(Object value, Class<?> targetType, String format) {
+            Assert.assertFalse(used);
+            used = true;
+            return value;
+        }
+    }
+
 }
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 
+import org.jsoup.select.Elements;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -148,6 +149,76 @@ public class RecursiveTest extends EstivateTest {
 
     }
 
+    @Test
+    public void selectItemsScope() throws IOException {
+
+        InputStream document = read("/select/u2.html");
+
+        List<Item> result = mapper.mapToList(document, Item.class);
+
+        Assert.assertEquals(3, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Assert.assertEquals(1, result.get(i).getSelf().size());
+            Assert.assertEquals("div" + (i + 1), result.get(i).getSelf().attr("id"));
+            Assert.assertEquals("Name " + (i + 1), result.get(i).getName());
+        }
+
+        log.info(result.toString());
+    }
+
+    @Data
+    @Select(".someClass")
+    public static class Item {
+
+        @Select
+        public Elements self;
+
+        @Text(select = ".name")
+        public String name;
+
+    }
+
+    @Test
+    public void selfReferencing() throws IOException {
+
+        InputStream document = read("/recursive/u1.html");
+
+        MenuTree result = mapper.map(document, MenuTree.class);
+
+        Assert.assertNotNull(result);
+
+        Assert.assertEquals(2, result.getItems().size());
+        Assert.assertEquals("Item 1", result.getItems().get(0).getLabel());
+        Assert.assertEquals("Item 2", result.getItems().get(1).getLabel());
+        Assert.assertEquals(0, result.getItems().get(1).getChildren().size());
+
+        Menu item12 = result.getItems().get(0).getChildren().get(1);
+        Assert.assertEquals("Item 1.2", item12.getLabel());
+        Assert.assertEquals(1, item12.getChildren().size());
+        Assert.assertEquals("Item 1.2.1", item12.getChildren().get(0).getLabel());
+
+        log.info(result.toString());
+    }
+
+    @Data
+    public static class MenuTree {
+
+        @Select("#menu > li")
+        public List<Menu> items;
+
+    }
+
+    @Data
+    public static class Menu {
+
+        @Text(select = "> a")
+        public String label;
+
+        @Select("> ul > li")
+        public List<Menu> children;
+
+    }
+
     @Data
     public static class SubResult {
 
@@ -0,0 +1,91 @@
+package estivate.parser;
+
+import java.lang.annotation.Annotation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Text;
+import estivate.core.ClassCache;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.parser.EstivateParser;
+import estivate.core.ast.parser.EstivateParser.AnnotationParser;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.Data;
+
+public class ParserCacheTest extends EstivateTest {
+
+    @Test
+    public void cached() {
+
+        EstivateParser.invalidate(Result.class);
+
+        ClassCache<EstivateAST> cache = EstivateParser.getCache();
+
+        EstivateAST ast1 = EstivateParser.parse(Result.class);
+
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+
+        EstivateAST ast2 = EstivateParser.parse(Result.class);
+
+        Assert.assertSame(ast1, ast2);
+        Assert.assertEquals(misses, cache.getMisses());
+        Assert.assertEquals(hits + 1, cache.getHits());
+    }
+
+    @Test
+    public void invalidate() {
+
+        EstivateAST ast1 = EstivateParser.parse(Result.class);
+
+        EstivateParser.invalidate(Result.class);
+
+        EstivateAST ast2 = EstivateParser.parse(Result.class);
+
+        Assert.assertNotSame(ast1, ast2);
+        Assert.assertEquals(ast1, ast2);
+
+        EstivateParser.clearCache();
+
+        Assert.assertNotSame(ast2, EstivateParser.parse(Result.class));
+    }
+
+    @Test
+    public void register() {
+
+        EstivateAST ast = EstivateParser.parse(Result.class);
+        MappingPlan plan = PlanCompiler.plan(Result.class);
+
+        final int[] parsed = new int[1];
+        EstivateParser.registerAnnotationParser(new AnnotationParser() {
+            public void parseAnnotation(EstivateAST ast, Annotation[] annotations) {
+                parsed[0]++;
+            }
+
+            public void parseAnnotation(ExpressionAST ast, Annotation[] annotations) {
+            }
+        });
+
+        Assert.assertNotSame(ast, EstivateParser.parse(Result.class));
+        Assert.assertNotSame(plan, PlanCompiler.plan(Result.class));
+        Assert.assertEquals(1, parsed[0]);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiable() {
+        EstivateParser.DEFAULT.getAnnotationParsers().add(null);
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = "#id1")
+        public String value;
+
+    }
+
+}
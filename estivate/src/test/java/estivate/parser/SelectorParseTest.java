@@ -0,0 +1,72 @@
+package estivate.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Is;
+import estivate.annotations.Text;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.lang.IsReduceAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.ast.parser.EstivateParser;
+import lombok.Data;
+
+public class SelectorParseTest extends EstivateTest {
+
+    @Test
+    public void compiledOnce() {
+
+        EstivateAST ast = EstivateParser.parseWithoutCache(Result.class);
+
+        ExpressionAST name = ast.getExpressions().get(0);
+        ExpressionAST other = ast.getExpressions().get(1);
+
+        SelectQueryAST nameQuery = (SelectQueryAST) name.getQueries().get(0);
+        SelectQueryAST otherQuery = (SelectQueryAST) other.getQueries().get(0);
+
+        Assert.assertNotNull(nameQuery.getEvaluator());
+        Assert.assertSame(nameQuery.getEvaluator(), otherQuery.getEvaluator());
+
+        Assert.assertNotNull(((IsReduceAST) other.getReduce()).getIsEvaluator());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSelect() {
+        EstivateParser.parseWithoutCache(InvalidSelect.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidIs() {
+        EstivateParser.parseWithoutCache(InvalidIs.class);
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = "#id1")
+        public String name;
+
+        @Is(select = "#id1", value = ".active")
+        public boolean active;
+
+    }
+
+    @Data
+    public static class InvalidSelect {
+
+        @Text(select = "div[")
+        public String name;
+
+    }
+
+    @Data
+    public static class InvalidIs {
+
+        @Is(":foo(bar)")
+        public boolean active;
+
+    }
+
+}
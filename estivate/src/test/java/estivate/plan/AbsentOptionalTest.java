@@ -0,0 +1,110 @@
+package estivate.plan;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Optional;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.Selectors;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluatorException;
+import estivate.core.eval.lang.SelectQueryEvaluator;
+import estivate.core.plan.ConvertStep;
+import estivate.core.plan.ValueStep;
+import lombok.Data;
+
+public class AbsentOptionalTest extends EstivateTest {
+
+    private final Document document = readDocument("/optional/u1.html");
+
+    @Test
+    public void absentSteps() {
+
+        EvalContext context = EvalContext.builder().document(document).queryResult(new Elements(document))
+                .optional(true).values(new Object[1]).build();
+
+        Elements selected = SelectQueryEvaluator.select(context, context.getQueryResult(),
+                Selectors.compile("#missing"), "#missing", 0, false, true, false);
+        Assert.assertTrue(selected.isEmpty());
+        Assert.assertTrue(context.isAbsent());
+
+        context.setAbsent(false);
+        context.setQueryResult(new Elements());
+        SimpleValueAST value = new SimpleValueAST();
+        context.setValueSteps(new ValueStep[] { new ValueStep(value, ConvertStep.ELEMENT) });
+        ConvertStep.ELEMENT.convert(context, value);
+        Assert.assertTrue(context.isAbsent());
+    }
+
+    @Test
+    public void optional() {
+
+        Result result = mapper.map(document, Result.class);
+
+        Assert.assertEquals("estivate", result.getName());
+        Assert.assertEquals("default", result.getMissing());
+        Assert.assertEquals(-1, result.getCount());
+        Assert.assertNull(result.getElement());
+
+        OptionalResult optionalResult = mapper.map(document, OptionalResult.class);
+        Assert.assertEquals("estivate", optionalResult.getName());
+        Assert.assertEquals(-1, optionalResult.getCount());
+    }
+
+    @Test
+    public void failure() {
+        try {
+            mapper.map(document, Required.class);
+            Assert.fail();
+        } catch (EstivateEvaluatorException e) {
+            Assert.assertEquals(0, e.getStackTrace().length);
+            Assert.assertEquals("element", e.getContext().getMemberName());
+            Assert.assertNull(e.getContext().getDocument());
+        }
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = ".name")
+        public String name;
+
+        @Text(select = "#missing", first = true, optional = true)
+        public String missing = "default";
+
+        @Text(select = ".count", optional = true)
+        public int count = -1;
+
+        @Optional
+        @Select("#missing")
+        public Element element;
+
+    }
+
+    @Data
+    @Optional
+    public static class OptionalResult {
+
+        @Text(select = ".name")
+        public String name;
+
+        @Text(select = ".count")
+        public int count = -1;
+
+    }
+
+    @Data
+    public static class Required {
+
+        @Select("#missing")
+        public Element element;
+
+    }
+
+}
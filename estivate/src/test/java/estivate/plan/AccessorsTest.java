@@ -0,0 +1,81 @@
+package estivate.plan;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.core.Accessors;
+import estivate.core.Accessors.Instantiator;
+import estivate.core.Accessors.Invoker;
+import estivate.core.Accessors.Setter;
+import lombok.Data;
+
+public class AccessorsTest {
+
+    @Test
+    public void setter() throws Exception {
+
+        Setter setter = Accessors.setter(Bean.class.getDeclaredField("count"));
+
+        Bean bean = new Bean();
+        setter.set(bean, 12);
+
+        Assert.assertEquals(12, bean.getCount());
+    }
+
+    @Test
+    public void invoker() throws Exception {
+
+        Invoker invoker = Accessors.invoker(Bean.class.getDeclaredMethod("names", String.class, String.class));
+
+        Bean bean = new Bean();
+        invoker.invoke(bean, new Object[] { "a", "b" });
+
+        Assert.assertEquals("a b", bean.getName());
+    }
+
+    @Test
+    public void instantiator() {
+
+        Instantiator<Bean> instantiator = Accessors.instantiator(Bean.class);
+
+        Assert.assertNotSame(instantiator.newInstance(), instantiator.newInstance());
+
+        Assert.assertNotNull(Accessors.instantiator(Hidden.class).newInstance());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void noDefaultConstructor() {
+
+        Instantiator<NoDefault> instantiator = Accessors.instantiator(NoDefault.class);
+
+        instantiator.newInstance();
+    }
+
+    @Data
+    public static class Bean {
+
+        private int count;
+
+        private String name;
+
+        public void names(String first, String second) {
+            this.name = first + " " + second;
+        }
+
+    }
+
+    static class Hidden {
+
+        private Hidden() {
+        }
+
+    }
+
+    public static class NoDefault {
+
+        public NoDefault(String value) {
+        }
+
+    }
+
+}
@@ -0,0 +1,138 @@
+package estivate.plan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import lombok.Data;
+
+public class AsyncTest extends EstivateTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void mapped() throws Exception {
+
+        CompletableFuture<Item> item = mapper.mapAsync(read("/async/u1.html"), Item.class, executor);
+        CompletableFuture<List<Item>> items = mapper.mapToListAsync(readDocument("/async/u1.html"), Item.class,
+                executor);
+
+        Assert.assertEquals("a b c", item.get(5, TimeUnit.SECONDS).getName());
+        Assert.assertEquals(3, items.get(5, TimeUnit.SECONDS).size());
+        Assert.assertEquals("c", items.get().get(2).getName());
+    }
+
+    @Test
+    public void failed() throws Exception {
+
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("unreadable");
+            }
+        };
+
+        try {
+            mapper.mapAsync(stream, Item.class, executor).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("unreadable", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void rejected() throws Exception {
+
+        Executor rejecting = new Executor() {
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("rejected");
+            }
+        };
+
+        try {
+            mapper.mapAsync(readDocument("/async/u1.html"), Item.class, rejecting).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void cancelled() throws Exception {
+
+        Document document = readDocument("/async/u1.html");
+
+        BlockingItem.started = new CountDownLatch(1);
+        BlockingItem.resume = new CountDownLatch(1);
+        BlockingItem.mapped.set(0);
+
+        CompletableFuture<List<BlockingItem>> items = mapper.mapToListAsync(document, BlockingItem.class, executor);
+
+        Assert.assertTrue(BlockingItem.started.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(items.cancel(false));
+        BlockingItem.resume.countDown();
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // stopped before the next item
+        Assert.assertEquals(1, BlockingItem.mapped.get());
+        try {
+            items.get();
+            Assert.fail();
+        } catch (CancellationException e) {
+            // cancelled by the caller
+        }
+    }
+
+    @Data
+    @Select("li")
+    public static class Item {
+
+        @Text
+        public String name;
+
+    }
+
+    @Select("li")
+    public static class BlockingItem {
+
+        static CountDownLatch started;
+
+        static CountDownLatch resume;
+
+        static final AtomicInteger mapped = new AtomicInteger();
+
+        @Text
+        public void setName(String name) throws InterruptedException {
+            mapped.incrementAndGet();
+            started.countDown();
+            resume.await(5, TimeUnit.SECONDS);
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+package estivate.plan;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.BatchOptions;
+import estivate.BatchResult;
+import estivate.EstivateTest;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.BatchExecutors;
+import lombok.Data;
+
+public class BatchTest extends EstivateTest {
+
+    @Test
+    public void ordered() throws InterruptedException {
+
+        List<InputStream> streams = new ArrayList<InputStream>();
+        for (int i = 0; i < 20; i++) {
+            streams.add(stream(i));
+        }
+
+        List<BatchResult<Page>> results = mapper.mapAll(streams, Page.class, BatchOptions.defaults().parallelism(4));
+
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i, results.get(i).getIndex());
+            Assert.assertTrue(results.get(i).isSuccess());
+            Assert.assertEquals(i, results.get(i).getValue().getId());
+            Assert.assertEquals("page " + i, results.get(i).getValue().getTitle());
+        }
+    }
+
+    @Test
+    public void failures() throws InterruptedException {
+
+        List<InputStream> streams = new ArrayList<InputStream>();
+        streams.add(stream(0));
+        streams.add(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("unreadable");
+            }
+        });
+        streams.add(new ByteArrayInputStream("<p>no id</p>".getBytes()));
+        streams.add(stream(3));
+
+        List<BatchResult<Page>> results = mapper.mapAll(streams, Page.class, BatchOptions.defaults().parallelism(2));
+
+        Assert.assertEquals(4, results.size());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertEquals("unreadable", results.get(1).getError().getMessage());
+        Assert.assertNull(results.get(1).getValue());
+        Assert.assertFalse(results.get(2).isSuccess());
+        Assert.assertEquals(3, results.get(3).getValue().getId());
+    }
+
+    @Test
+    public void virtualThreads() throws InterruptedException {
+
+        List<Document> documents = new ArrayList<Document>();
+        for (int i = 0; i < 10; i++) {
+            documents.add(Jsoup.parse(html(i)));
+        }
+
+        // a pool of threads before Java 21
+        List<BatchResult<Page>> results = mapper.mapAllDocuments(documents, Page.class,
+                BatchOptions.defaults().virtualThreads(true).maxInFlight(4));
+
+        Assert.assertEquals(10, results.size());
+        Assert.assertEquals(9, results.get(9).getValue().getId());
+
+        // run on Java 21 against the multi-release jar
+        if (Boolean.getBoolean("estivate.multiRelease")) {
+            Assert.assertTrue(BatchExecutors.isVirtual());
+        }
+    }
+
+    @Test
+    public void bounded() throws InterruptedException {
+
+        final int size = 50;
+        final AtomicInteger read = new AtomicInteger();
+        final AtomicInteger handled = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        Iterable<Document> documents = new Iterable<Document>() {
+            public Iterator<Document> iterator() {
+                return new Iterator<Document>() {
+                    public boolean hasNext() {
+                        return read.get() < size;
+                    }
+
+                    public Document next() {
+                        int i = read.getAndIncrement();
+                        int inFlight = i + 1 - handled.get();
+                        if (inFlight > maxInFlight.get()) {
+                            maxInFlight.set(inFlight);
+                        }
+                        return Jsoup.parse(html(i));
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        final List<BatchResult<Page>> results = new ArrayList<BatchResult<Page>>();
+        mapper.mapAllDocuments(documents, Page.class,
+                BatchOptions.defaults().parallelism(4).maxInFlight(6).ordered(false),
+                new BatchResult.Handler<Page>() {
+                    public void handle(BatchResult<Page> result) {
+                        results.add(result);
+                        handled.incrementAndGet();
+                    }
+                });
+
+        Assert.assertEquals(size, results.size());
+        for (BatchResult<Page> result : results) {
+            Assert.assertEquals(result.getIndex(), result.getValue().getId());
+        }
+        Assert.assertTrue("" + maxInFlight.get(), maxInFlight.get() <= 6);
+    }
+
+    private static InputStream stream(int id) {
+        return new ByteArrayInputStream(html(id).getBytes());
+    }
+
+    private static String html(int id) {
+        return "<div id='page' data-id='" + id + "'><h1>page " + id + "</h1></div>";
+    }
+
+    @Data
+    @Select("#page")
+    public static class Page {
+
+        @Attr("data-id")
+        public int id;
+
+        @Select("h1")
+        @Text
+        public String title;
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package estivate.plan;
+
+import java.util.Arrays;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.core.DocumentIndex;
+import estivate.core.DocumentIndex.Query;
+import estivate.core.Selectors;
+
+public class DocumentIndexTest extends EstivateTest {
+
+    private final Document document = readDocument("/index/u1.html");
+
+    @Test
+    public void sameAsJsoup() {
+
+        DocumentIndex index = new DocumentIndex(document);
+
+        for (String query : Arrays.asList("#a", "#b", "#missing", ".box", ".x", ".inner", "p", "P", "p.x", "#a p",
+                "#a > p", ".box p", ".box > p", "div span", "p:eq(0)", "div:has(span)", ".box p.x", "div p", "div > *", "p + p", "p ~ span", "div p + span",
+                ".box > p:eq(1)", "#a [class]", "> p")) {
+            for (Element root : Arrays.asList(document, document.getElementById("a"),
+                    document.select(".inner").first(), document.getElementById("b"))) {
+
+                Assert.assertEquals(query + " from " + root.nodeName(),
+                        Collector.collect(Selectors.compile(query), root),
+                        index.select(Query.parse(query), root, Selectors.compile(query)));
+            }
+        }
+    }
+
+    @Test
+    public void notIndexed() {
+
+        for (String query : Arrays.asList("*", "[href]", ":root", "p, span", "p + *", "a|b", "#a\\:b",
+                "p:matchText", "* [class]")) {
+            Assert.assertNull(query, Query.parse(query));
+        }
+    }
+
+    @Test
+    public void inside() {
+
+        DocumentIndex index = new DocumentIndex(document);
+
+        Element a = document.getElementById("a");
+
+        Assert.assertTrue(index.isInside(a, a));
+        Assert.assertTrue(index.isInside(document.select(".inner p").first(), a));
+        Assert.assertFalse(index.isInside(document.getElementById("b"), a));
+        Assert.assertFalse(index.isInside(a, document.select(".inner").first()));
+    }
+
+    @Test
+    public void otherDocument() {
+
+        Element other = readDocument("/index/u1.html").body();
+
+        Assert.assertNull(new DocumentIndex(document).select(Query.parse("p"), other, Selectors.compile("p")));
+    }
+
+}
@@ -0,0 +1,102 @@
+package estivate.plan;
+
+import org.jsoup.Jsoup;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SelectQueryAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.ast.lang.TextReduceAST;
+import estivate.core.eval.EstivateEvaluator;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import estivate.core.eval.EvaluatorRegistry;
+import estivate.core.eval.lang.SelectQueryEvaluator;
+import estivate.core.eval.lang.TextReduceEvaluator;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import estivate.core.plan.ReduceStep;
+import estivate.core.plan.ValueStep;
+
+public class EvaluatorRegistryTest {
+
+    @Test
+    public void resolve() {
+
+        EvaluatorRegistry registry = EvaluatorRegistry.defaults();
+
+        Assert.assertSame(SelectQueryEvaluator.INSTANCE, registry.queryEvaluator(SelectQueryAST.class));
+        Assert.assertSame(TextReduceEvaluator.INSTANCE, registry.reduceEvaluator(TextReduceAST.class));
+
+        // nearest registered superclass
+        Assert.assertSame(TextReduceEvaluator.INSTANCE, registry.reduceEvaluator(OwnTextReduceAST.class));
+
+        Assert.assertNull(registry.reduceEvaluator(LengthReduceAST.class));
+        Assert.assertNull(new EvaluatorRegistry().queryEvaluator(SelectQueryAST.class));
+    }
+
+    @Test
+    public void custom() {
+
+        // compiled before registration
+        ReduceStep unknown = PlanCompiler.compileReduce(new LengthReduceAST());
+
+        EstivateEvaluator.REGISTRY.registerReduce(LengthReduceAST.class, LengthReduceEvaluator.INSTANCE);
+
+        ReduceStep step = PlanCompiler.compileReduce(new LengthReduceAST());
+        Assert.assertSame(LengthReduceEvaluator.INSTANCE, step.getEvaluator());
+
+        Assert.assertEquals(3, reduce(step, "<p>abc</p>"));
+        Assert.assertEquals(2, reduce(unknown, "<p>ab</p>"));
+    }
+
+    @Test
+    public void register() {
+
+        MappingPlan plan = PlanCompiler.plan(MapperBuilderTest.Result.class);
+
+        EstivateEvaluator.registerReduce(LengthReduceAST.class, LengthReduceEvaluator.INSTANCE);
+
+        Assert.assertSame(LengthReduceEvaluator.INSTANCE,
+                EstivateEvaluator.REGISTRY.reduceEvaluator(LengthReduceAST.class));
+        // compiled again
+        Assert.assertNotSame(plan, PlanCompiler.plan(MapperBuilderTest.Result.class));
+    }
+
+    private static Object reduce(ReduceStep step, String html) {
+        SimpleValueAST value = new SimpleValueAST();
+
+        EvalContext context = EvalContext.builder().queryResult(new Elements(Jsoup.parse(html).selectFirst("p")))
+                .values(new Object[1]).valueSteps(new ValueStep[] { new ValueStep(value, null) }).build();
+
+        step.eval(context, value);
+        return context.getValue(value);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownValue() {
+        EvalContext context = EvalContext.builder().values(new Object[1])
+                .valueSteps(new ValueStep[] { new ValueStep(new SimpleValueAST(), null) }).build();
+
+        context.getValue(new SimpleValueAST());
+    }
+
+    public static class OwnTextReduceAST extends TextReduceAST {
+    }
+
+    public static class LengthReduceAST extends ReduceAST {
+    }
+
+    public static class LengthReduceEvaluator implements ReduceEvaluator {
+
+        public static final LengthReduceEvaluator INSTANCE = new LengthReduceEvaluator();
+
+        public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST valueAST) {
+            context.setValue(valueAST, context.getQueryResult().text().length());
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package estivate.plan;
+
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Absolute;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.annotations.Title;
+import estivate.core.plan.ExpressionStep;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.Data;
+
+public class InvariantTest extends EstivateTest {
+
+    private final Document document = readDocument("/invariant/u1.html");
+
+    @Test
+    public void compiled() {
+
+        MappingPlan plan = PlanCompiler.plan(Item.class);
+
+        Assert.assertFalse(expression(plan, "name").isInvariant());
+        Assert.assertTrue(expression(plan, "title").isInvariant());
+        Assert.assertTrue(expression(plan, "page").isInvariant());
+        Assert.assertTrue(expression(plan, "headers").isInvariant());
+        Assert.assertTrue(expression(plan, "page").isAbsolute());
+
+        // the batch selects from the item only
+        Assert.assertEquals(1, plan.getSelectBatch().getQueries().length);
+    }
+
+    @Test
+    public void hoisted() {
+
+        List<Item> items = mapper.mapToList(document, Item.class);
+
+        Assert.assertEquals(3, items.size());
+        Assert.assertEquals("b", items.get(1).getName());
+        for (Item item : items) {
+            Assert.assertEquals("Results", item.getTitle());
+            Assert.assertEquals("Page 2", item.getPage());
+            Assert.assertEquals("Page 2", item.getHeaders().text());
+        }
+
+        // converted once, each target has its own elements
+        Assert.assertSame(items.get(0).getTitle(), items.get(2).getTitle());
+        Assert.assertSame(items.get(0).getPage(), items.get(2).getPage());
+        Assert.assertNotSame(items.get(0).getHeaders(), items.get(2).getHeaders());
+    }
+
+    @Test
+    public void elements() {
+
+        MappingPlan plan = PlanCompiler.plan(RootItem.class);
+
+        Assert.assertFalse(expression(plan, "root").isInvariant());
+        Assert.assertFalse(expression(plan, "roots").isInvariant());
+
+        List<RootItem> items = mapper.mapToList(document, RootItem.class);
+
+        Assert.assertEquals(3, items.size());
+        Assert.assertEquals("b", items.get(1).getRoot().text());
+        Assert.assertEquals("b", items.get(1).getRoots().text());
+    }
+
+    @Test
+    public void nested() {
+
+        Result result = mapper.map(document, Result.class);
+
+        Assert.assertEquals("Results", result.getTitle());
+        Assert.assertEquals("Results", result.getItem().getTitle());
+        Assert.assertEquals("Page 2", result.getItem().getPage());
+    }
+
+    private static ExpressionStep expression(MappingPlan plan, String memberName) {
+        for (ExpressionStep expression : plan.getExpressions()) {
+            if (memberName.equals(expression.getMemberName())) {
+                return expression;
+            }
+        }
+        throw new IllegalArgumentException(memberName);
+    }
+
+    @Data
+    @Select("div.item")
+    public static class Item {
+
+        @Text(select = "span")
+        public String name;
+
+        @Title
+        public String title;
+
+        @Absolute
+        @Text(select = "h1")
+        public String page;
+
+        @Absolute
+        @Select("h1")
+        public Elements headers;
+
+    }
+
+    @Data
+    @Select("div.item")
+    public static class RootItem {
+
+        @Title
+        public Element root;
+
+        @Title
+        public Elements roots;
+
+    }
+
+    @Data
+    public static class Result {
+
+        @Title
+        public String title;
+
+        @Select(value = "div.item", first = true)
+        public Item item;
+
+    }
+
+}
@@ -0,0 +1,212 @@
+package estivate.plan;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateMapper;
+import estivate.EstivateTest;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.ast.EstivateAST;
+import estivate.core.ast.ExpressionAST;
+import estivate.core.ast.ReduceAST;
+import estivate.core.ast.lang.SimpleValueAST;
+import estivate.core.ast.lang.TextReduceAST;
+import estivate.core.ast.parser.EstivateParser.AnnotationParser;
+import estivate.core.ast.parser.EstivateParser.ClassParser;
+import estivate.core.eval.EstivateEvaluator.EvalContext;
+import estivate.core.eval.EstivateEvaluator.ReduceEvaluator;
+import estivate.core.eval.lang.TextReduceEvaluator;
+import estivate.core.generated.GeneratedMapper;
+import estivate.core.plan.PlanCompiler;
+import estivate.utils.AnnotationsUtils;
+import lombok.Data;
+
+public class MapperBuilderTest extends EstivateTest {
+
+    private final Document document = Jsoup.parse("<p>estivate</p>");
+
+    @Test
+    public void defaults() {
+
+        EstivateMapper built = EstivateMapper.builder().encoding("ISO-8859-1").baseURI("http://host/")
+                .selectionCacheSize(16).build();
+
+        Assert.assertEquals("ISO-8859-1", built.getEncoding());
+        Assert.assertEquals("http://host/", built.getBaseURI());
+        Assert.assertEquals(16, built.getSelectionCacheSize());
+        Assert.assertTrue(built.isUseGeneratedMappers());
+
+        Assert.assertEquals("estivate", built.map(document, Result.class).getName());
+
+        // own plans
+        Assert.assertNotSame(PlanCompiler.plan(Result.class), built.getCompiler().getPlan(Result.class));
+        Assert.assertSame(built.getCompiler().getPlan(Result.class), built.getCompiler().getPlan(Result.class));
+    }
+
+    @Test
+    public void generatedMappers() throws Exception {
+
+        Assert.assertEquals("generated", new EstivateMapper().map(document, Generated.class).getName());
+        Assert.assertEquals("generated", new EstivateMapper().mapToList(document, Generated.class).get(0).getName());
+
+        // settings of the plan
+        List<EstivateMapper> mappers = Arrays.asList(EstivateMapper.builder().useDocumentIndex(true).build(),
+                EstivateMapper.builder().selectionCacheSize(16).build(),
+                EstivateMapper.builder().forkJoinPool(ForkJoinPool.commonPool()).build(),
+                EstivateMapper.builder().parallelThreshold(2).build(),
+                EstivateMapper.builder().parallelNested(true).build());
+        for (EstivateMapper mapper : mappers) {
+            Assert.assertEquals("estivate", mapper.map(document, Generated.class).getName());
+            Assert.assertEquals("estivate", mapper.mapToList(document, Generated.class).get(0).getName());
+        }
+
+        // cancellable
+        Assert.assertEquals("estivate", new EstivateMapper()
+                .mapAsync(document, Generated.class, ForkJoinPool.commonPool()).get().getName());
+    }
+
+    @Test
+    public void immutable() {
+
+        EstivateMapper built = EstivateMapper.builder().selectionCacheSize(16).build();
+
+        try {
+            built.setSelectionCacheSize(0);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(16, built.getSelectionCacheSize());
+        }
+        try {
+            built.setUseDocumentIndex(true);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertFalse(built.isUseDocumentIndex());
+        }
+
+        // the no-arg mapper keeps its setters
+        mapper.setSelectionCacheSize(16);
+        Assert.assertEquals(16, mapper.getSelectionCacheSize());
+    }
+
+    @Test
+    public void custom() {
+
+        EstivateMapper built = EstivateMapper.builder().annotationParser(UpperParser.INSTANCE)
+                .reduceEvaluator(UpperReduceAST.class, UpperReduceEvaluator.INSTANCE).build();
+
+        Assert.assertFalse(built.isUseGeneratedMappers());
+
+        Assert.assertEquals("ESTIVATE", built.map(document, Result.class).getUpper());
+        Assert.assertEquals("ESTIVATE", built.map(document, Nested.class).getResults().get(0).getUpper());
+
+        // other mappers dont see the registrations
+        Assert.assertEquals("estivate", mapper.map(document, Result.class).getUpper());
+        Assert.assertEquals("estivate",
+                EstivateMapper.builder().build().map(document, Result.class).getUpper());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutableRegistry() {
+        EstivateMapper.builder().build().getCompiler().getRegistry().registerReduce(UpperReduceAST.class,
+                UpperReduceEvaluator.INSTANCE);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutableParsers() {
+        EstivateMapper.builder().build().getCompiler().getParser().getClassParsers().add(new ClassParser() {
+            public void parseClass(EstivateAST ast, Class<?> clazz) {
+            }
+        });
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public static @interface Upper {
+    }
+
+    public static class UpperReduceAST extends TextReduceAST {
+    }
+
+    public static class UpperParser implements AnnotationParser {
+
+        public static final UpperParser INSTANCE = new UpperParser();
+
+        public void parseAnnotation(EstivateAST ast, Annotation[] annotations) {
+        }
+
+        public void parseAnnotation(ExpressionAST ast, Annotation[] annotations) {
+            if (AnnotationsUtils.find(annotations, Upper.class) != null) {
+                ast.setReduce(new UpperReduceAST());
+            }
+        }
+    }
+
+    public static class UpperReduceEvaluator implements ReduceEvaluator {
+
+        public static final UpperReduceEvaluator INSTANCE = new UpperReduceEvaluator();
+
+        public void evalReduce(EvalContext context, ReduceAST reduce, SimpleValueAST valueAST) {
+            TextReduceEvaluator.INSTANCE.evalReduce(context, reduce, valueAST);
+            context.setValue(valueAST, ((String) context.getValue(valueAST)).toUpperCase());
+        }
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = "p")
+        public String name;
+
+        @Upper
+        @Text(select = "p")
+        public String upper;
+
+    }
+
+    @Data
+    public static class Nested {
+
+        @Select("p")
+        public List<Result> results;
+
+    }
+
+    @Data
+    public static class Generated {
+
+        @Text(select = "p")
+        public String name;
+
+    }
+
+    /**
+     * Found by GeneratedMappers as the mapper of {@link Generated}
+     */
+    public static class Generated_EstivateMapper implements GeneratedMapper<Generated> {
+
+        public Elements query(Document document, Elements queryResult) {
+            return queryResult;
+        }
+
+        public Generated eval(Document document, Elements queryResult, PlanCompiler compiler) {
+            Generated target = new Generated();
+            target.setName("generated");
+            return target;
+        }
+
+    }
+
+}
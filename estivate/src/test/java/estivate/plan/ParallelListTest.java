@@ -0,0 +1,158 @@
+package estivate.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateMapper;
+import estivate.EstivateTest;
+import estivate.MappingResult;
+import estivate.annotations.Absolute;
+import estivate.annotations.Attr;
+import estivate.annotations.Parallel;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import lombok.Data;
+
+public class ParallelListTest extends EstivateTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void ordered() {
+
+        Document document = readDocument("/parallel/u1.html");
+
+        List<Item> sequential = mapper.mapToList(document, Item.class);
+
+        EstivateMapper parallel = EstivateMapper.builder().forkJoinPool(pool).parallelThreshold(10).build();
+        List<Item> items = parallel.mapToList(document, Item.class);
+
+        Assert.assertEquals(sequential, items);
+        Assert.assertEquals(60, items.size());
+        Assert.assertEquals("item 59", items.get(59).getName());
+        Assert.assertEquals(3, items.get(59).getTags().size());
+        Assert.assertEquals("Catalog", items.get(59).getHeader());
+    }
+
+    @Test
+    public void annotated() {
+
+        Document document = readDocument("/parallel/u1.html");
+
+        // on the common pool, from 10 items
+        List<ParallelItem> items = mapper.mapToList(document, ParallelItem.class);
+
+        Assert.assertEquals(60, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Assert.assertEquals(i, items.get(i).getId());
+        }
+    }
+
+    @Test
+    public void otherPool() {
+
+        final Document document = readDocument("/parallel/u1.html");
+        final EstivateMapper parallel = EstivateMapper.builder().forkJoinPool(pool).parallelThreshold(10).build();
+
+        PoolItem.pools.clear();
+
+        // mapped from a task of another pool
+        ForkJoinPool other = new ForkJoinPool(2);
+        try {
+            other.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    parallel.mapToList(document, PoolItem.class);
+                }
+            });
+        } finally {
+            other.shutdown();
+        }
+
+        Assert.assertEquals(PoolItem.pools.toString(), 1, PoolItem.pools.size());
+        Assert.assertTrue(PoolItem.pools.contains(pool));
+    }
+
+    @Test
+    public void failures() {
+
+        // item 23 has an invalid id
+        Document document = readDocument("/parallel/u2.html");
+
+        EstivateMapper parallel = EstivateMapper.builder().forkJoinPool(pool).parallelThreshold(10).build();
+
+        try {
+            parallel.mapToList(document, Item.class);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // the failure of the item, as sequentially
+        }
+
+        MappingResult<List<Item>> result = parallel.tryMapToList(document, Item.class);
+        Assert.assertEquals(40, result.getValue().size());
+        Assert.assertEquals(1, result.getErrors().size());
+        Assert.assertEquals("[23].id", result.getErrors().get(0).getMemberPath());
+    }
+
+    @Data
+    @Select(".item")
+    public static class Item {
+
+        @Attr("data-id")
+        public int id;
+
+        @Select(".name")
+        @Text
+        public String name;
+
+        @Select("i")
+        @Text
+        public List<String> tags = new ArrayList<String>();
+
+        @Absolute
+        @Select("h1")
+        @Text
+        public String header;
+
+    }
+
+    @Select(".item")
+    public static class PoolItem {
+
+        static final Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+        @Attr("data-id")
+        public void setId(int id) {
+            pools.add(ForkJoinTask.getPool());
+        }
+
+    }
+
+    @Data
+    @Parallel(threshold = 10)
+    @Select(".item")
+    public static class ParallelItem {
+
+        @Attr("data-id")
+        public int id;
+
+    }
+
+}
@@ -0,0 +1,267 @@
+package estivate.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateMapper;
+import estivate.EstivateTest;
+import estivate.MappingResult;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.plan.ExpressionStep;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.Data;
+
+public class ParallelNestedTest extends EstivateTest {
+
+    private final Document document = readDocument("/parallel/u3.html");
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final EstivateMapper parallel = EstivateMapper.builder().forkJoinPool(pool).parallelNested(true)
+            .build();
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void compiled() {
+
+        MappingPlan plan = PlanCompiler.plan(Product.class);
+
+        Assert.assertFalse(expression(plan, "setName").isNested());
+        Assert.assertTrue(expression(plan, "setSeller").isNested());
+        Assert.assertTrue(expression(plan, "setVariants").isNested());
+    }
+
+    @Test
+    public void siblings() {
+
+        Product expected = mapper.map(document, Product.class);
+        Product product = parallel.map(document, Product.class);
+
+        Assert.assertEquals(expected, product);
+        Assert.assertEquals(7, product.getSeller().getId());
+        Assert.assertEquals(2, product.getVariants().size());
+        Assert.assertEquals("white", product.getVariants().get(1).getColor());
+        Assert.assertEquals(2, product.getVariants().get(0).getOffers().size());
+
+        // assigned in the order of the plan, from the thread of the target
+        Assert.assertEquals(3, product.getAssigned().size());
+        Assert.assertEquals(expected.getAssigned(), product.getAssigned());
+    }
+
+    @Test
+    public void otherPool() {
+
+        PoolPart.pools.clear();
+
+        // mapped from a task of another pool
+        ForkJoinPool other = new ForkJoinPool(2);
+        try {
+            other.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    parallel.map(document, PoolProduct.class);
+                }
+            });
+        } finally {
+            other.shutdown();
+        }
+
+        Assert.assertEquals(PoolPart.pools.toString(), 1, PoolPart.pools.size());
+        Assert.assertTrue(PoolPart.pools.contains(pool));
+    }
+
+    @Test
+    public void failures() {
+
+        MappingResult<Broken> result = parallel.tryMap(document, Broken.class);
+
+        Assert.assertEquals("Phone", result.getValue().getName());
+        Assert.assertNotNull(result.getValue().getVariants());
+        Assert.assertEquals(1, result.getErrors().size());
+        Assert.assertEquals("seller.id", result.getErrors().get(0).getMemberPath());
+
+        try {
+            parallel.map(document, Broken.class);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // thrown as is by the target thread
+        }
+    }
+
+    @Test
+    public void joinedOnFailure() {
+
+        try {
+            parallel.map(document, SlowBroken.class);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // the started siblings are done before it is thrown
+            Assert.assertEquals(SlowPart.started.get(), SlowPart.finished.get());
+        }
+    }
+
+    private static ExpressionStep expression(MappingPlan plan, String memberName) {
+        for (ExpressionStep expression : plan.getExpressions()) {
+            if (memberName.equals(expression.getMemberName())) {
+                return expression;
+            }
+        }
+        throw new IllegalArgumentException(memberName);
+    }
+
+    @Data
+    @Select(".product")
+    public static class Product {
+
+        public List<String> assigned = new ArrayList<String>();
+
+        public String name;
+
+        public Seller seller;
+
+        public List<Variant> variants;
+
+        @Select("h2")
+        @Text
+        public void setName(String name) {
+            this.name = name;
+            assigned.add("name");
+        }
+
+        @Select(".seller")
+        public void setSeller(Seller seller) {
+            this.seller = seller;
+            assigned.add("seller");
+        }
+
+        @Select(".variant")
+        public void setVariants(List<Variant> variants) {
+            this.variants = variants;
+            assigned.add("variants");
+        }
+
+    }
+
+    @Data
+    public static class Seller {
+
+        @Attr("data-id")
+        public int id;
+
+        @Select("b")
+        @Text
+        public String name;
+
+    }
+
+    @Data
+    public static class Variant {
+
+        @Select("i")
+        @Text
+        public String color;
+
+        @Select(".offer")
+        @Text
+        public List<Integer> offers;
+
+    }
+
+    @Data
+    @Select(".product")
+    public static class PoolProduct {
+
+        @Select(".seller")
+        public PoolPart seller;
+
+        @Select(".variant")
+        public List<PoolPart> variants;
+
+    }
+
+    public static class PoolPart {
+
+        static final Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+        @Select("b, i")
+        @Text
+        public void setName(String name) {
+            pools.add(ForkJoinTask.getPool());
+        }
+
+    }
+
+    @Data
+    @Select(".product")
+    public static class Broken {
+
+        @Select("h2")
+        @Text
+        public String name;
+
+        @Select(".seller")
+        public BrokenSeller seller;
+
+        @Select(".variant")
+        public List<Variant> variants;
+
+    }
+
+    @Data
+    @Select(".product")
+    public static class SlowBroken {
+
+        @Select(".seller")
+        public BrokenSeller seller;
+
+        @Select(".variant")
+        public List<SlowPart> variants;
+
+    }
+
+    public static class SlowPart {
+
+        static final AtomicInteger started = new AtomicInteger();
+
+        static final AtomicInteger finished = new AtomicInteger();
+
+        @Select("i")
+        @Text
+        public void setColor(String color) throws InterruptedException {
+            started.incrementAndGet();
+            Thread.sleep(100);
+            finished.incrementAndGet();
+        }
+
+    }
+
+    @Data
+    public static class BrokenSeller {
+
+        @Select("b")
+        @Text
+        public int id;
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package estivate.plan;
+
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Table;
+import estivate.annotations.Text;
+import estivate.core.eval.lang.AttrReduceEvaluator;
+import estivate.core.eval.lang.SelectQueryEvaluator;
+import estivate.core.eval.lang.TableQueryEvaluator;
+import estivate.core.eval.lang.TextReduceEvaluator;
+import estivate.core.plan.ConvertStep;
+import estivate.core.plan.ExpressionStep;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class PlanCompilerTest extends EstivateTest {
+
+    @Test
+    public void bound() {
+
+        MappingPlan plan = PlanCompiler.plan(Result.class);
+
+        log.info(plan.toString());
+
+        Assert.assertSame(plan, PlanCompiler.plan(Result.class));
+        Assert.assertEquals(Result.class, plan.getTargetRawClass());
+        Assert.assertEquals(4, plan.getExpressions().length);
+
+        ExpressionStep name = find(plan, "name");
+        Assert.assertSame(SelectQueryEvaluator.INSTANCE, name.getQueries()[0].getEvaluator());
+        Assert.assertSame(TextReduceEvaluator.INSTANCE, name.getReduce().getEvaluator());
+
+        ExpressionStep roles = find(plan, "roles");
+        Assert.assertSame(AttrReduceEvaluator.INSTANCE, roles.getReduce().getEvaluator());
+        Assert.assertTrue(roles.getValues()[0].getConverter() instanceof ConvertStep.DefaultConvertStep);
+
+        ExpressionStep element = find(plan, "element");
+        Assert.assertSame(ConvertStep.ELEMENT, element.getValues()[0].getConverter());
+
+        ExpressionStep table = find(plan, "table");
+        Assert.assertEquals(1, table.getQueries().length);
+        Assert.assertSame(TableQueryEvaluator.INSTANCE, table.getQueries()[0].getEvaluator());
+    }
+
+    @Test
+    public void slots() {
+
+        MappingPlan plan = PlanCompiler.plan(Result.class);
+
+        Assert.assertEquals(4, plan.getSlotCount());
+
+        for (int i = 0; i < plan.getExpressions().length; i++) {
+            Assert.assertEquals(i, plan.getExpressions()[i].getValues()[0].getSlot());
+        }
+    }
+
+    @Test
+    public void invalidate() {
+
+        MappingPlan plan = PlanCompiler.plan(Result.class);
+
+        PlanCompiler.invalidate(Result.class);
+
+        Assert.assertNotSame(plan, PlanCompiler.plan(Result.class));
+    }
+
+    private ExpressionStep find(MappingPlan plan, String memberName) {
+        for (ExpressionStep expression : plan.getExpressions()) {
+            if (memberName.equals(expression.getMemberName())) {
+                return expression;
+            }
+        }
+        throw new AssertionError("No expression for " + memberName);
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = "#id1")
+        public String name;
+
+        @Attr(select = "div", value = "role")
+        public List<String> roles;
+
+        @Select("#id1")
+        public Element element;
+
+        @Table("table")
+        public Element table;
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package estivate.plan;
+
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.DocumentIndex;
+import estivate.core.Selectors;
+import estivate.core.plan.PlanCompiler;
+import estivate.core.plan.SelectBatch;
+import lombok.Data;
+
+public class SelectAllTest extends EstivateTest {
+
+    private final Document document = page(30);
+
+    @Test
+    public void selectAll() {
+
+        DocumentIndex index = new DocumentIndex(document);
+        Elements items = document.select("div.item");
+
+        Elements[] names = index.selectAll(DocumentIndex.Query.parse(".name"), items, Selectors.compile(".name"));
+        Assert.assertEquals(items.size(), names.length);
+        for (int i = 0; i < names.length; i++) {
+            Assert.assertEquals(items.get(i).select(".name"), names[i]);
+        }
+
+        // not disjoint
+        Assert.assertNull(index.selectAll(DocumentIndex.Query.parse(".name"), document.select("div"),
+                Selectors.compile(".name")));
+    }
+
+    @Test
+    public void items() {
+
+        SelectBatch batch = PlanCompiler.plan(Item.class).getSelectBatch();
+        Elements items = document.select("div.item");
+
+        Elements[][] selected = batch.selectAll(items, new DocumentIndex(document), null);
+        for (int item = 0; item < items.size(); item++) {
+            for (int slot = 0; slot < batch.getQueries().length; slot++) {
+                Assert.assertEquals(items.get(item).select(batch.getQueries()[slot].getQueryString()),
+                        selected[item][slot]);
+            }
+        }
+    }
+
+    @Test
+    public void sameMapping() {
+
+        mapper.setUseDocumentIndex(true);
+        List<Item> indexed = mapper.mapToList(document, Item.class);
+
+        mapper.setUseDocumentIndex(false);
+        List<Item> items = mapper.mapToList(document, Item.class);
+
+        Assert.assertEquals(30, indexed.size());
+        Assert.assertEquals(items, indexed);
+        Assert.assertEquals("Name 7", indexed.get(7).getName());
+        Assert.assertEquals("/item/7", indexed.get(7).getLink());
+        Assert.assertEquals(7, indexed.get(7).getRank());
+        Assert.assertEquals("tag 7", indexed.get(7).getTag());
+    }
+
+    private static Document page(int size) {
+        StringBuilder sb = new StringBuilder("<div id='results'>");
+        for (int i = 0; i < size; i++) {
+            sb.append("<div class='item' data-rank='").append(i).append("'><a class='name' href='/item/").append(i)
+                    .append("'>Name ").append(i).append("</a><span>tag ").append(i).append("</span></div>");
+        }
+        return Jsoup.parse(sb.append("</div>").toString());
+    }
+
+    @Data
+    @Select("div.item")
+    public static class Item {
+
+        @Text(select = ".name")
+        public String name;
+
+        @Attr(select = "a", value = "href")
+        public String link;
+
+        @Attr(select = "[data-rank]", value = "data-rank")
+        public int rank;
+
+        @Text(select = "div > span")
+        public String tag;
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package estivate.plan;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.core.DocumentIndex;
+import estivate.core.plan.ExpressionStep;
+import estivate.core.plan.MappingPlan;
+import estivate.core.plan.PlanCompiler;
+import estivate.core.plan.QueryStep;
+import estivate.core.plan.SelectBatch;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class SelectBatchTest extends EstivateTest {
+
+    private final Document document = readDocument("/batch/u1.html");
+
+    private final Document product = readDocument("/batch/u2.html");
+
+    @Test
+    public void batched() {
+
+        MappingPlan plan = PlanCompiler.plan(Result.class);
+
+        SelectBatch batch = plan.getSelectBatch();
+        Assert.assertNotNull(batch);
+        Assert.assertEquals(8, batch.getQueries().length);
+
+        // given by the compilation, in order
+        int batchSlot = 0;
+        for (ExpressionStep expression : plan.getExpressions()) {
+            QueryStep query = expression.getQueries()[0];
+            if (query.getBatchSlot() >= 0) {
+                Assert.assertEquals(batchSlot, query.getBatchSlot());
+                Assert.assertSame(batch.getQueries()[batchSlot++], query.getAst());
+            }
+        }
+        Assert.assertEquals(8, batchSlot);
+
+        // evaluated alone
+        Assert.assertEquals(-1, PlanCompiler.compileExpression(plan.getAst().getExpressions().get(0)).getQueries()[0]
+                .getBatchSlot());
+
+        Elements[] selected = batch.select(new Elements(document), null, null);
+        for (int i = 0; i < selected.length; i++) {
+            Assert.assertEquals(batch.getQueries()[i].getQueryString(),
+                    document.select(batch.getQueries()[i].getQueryString()), selected[i]);
+        }
+
+        selected = batch.select(new Elements(document), new DocumentIndex(document), null);
+        for (int i = 0; i < selected.length; i++) {
+            Assert.assertEquals(batch.getQueries()[i].getQueryString(),
+                    document.select(batch.getQueries()[i].getQueryString()), selected[i]);
+        }
+    }
+
+    @Test
+    public void factored() {
+
+        SelectBatch batch = PlanCompiler.plan(Product.class).getSelectBatch();
+
+        Assert.assertTrue(batch.isFactored());
+        log.info(batch.report());
+        Assert.assertTrue(batch.report().contains("'.price' evaluated once for\n  price\n  cents"));
+        Assert.assertTrue(batch.report().contains("'#main > section.product' evaluated once for"));
+
+        for (DocumentIndex index : Arrays.asList(null, new DocumentIndex(product))) {
+            Elements[] selected = batch.select(new Elements(product), index, null);
+            for (int i = 0; i < selected.length; i++) {
+                Assert.assertEquals(batch.getQueries()[i].getQueryString(),
+                        product.select(batch.getQueries()[i].getQueryString()), selected[i]);
+            }
+        }
+
+        Product result = mapper.map(product, Product.class);
+        Assert.assertEquals("Mug", result.getName());
+        Assert.assertEquals("12", result.getPrice());
+        Assert.assertEquals(1200, result.getCents());
+        Assert.assertEquals(Arrays.asList("kitchen", "coffee"), result.getTags());
+        Assert.assertEquals(Arrays.asList("kitchen"), result.getFirstTags());
+    }
+
+    @Test
+    public void notShared() {
+
+        Assert.assertEquals("No selector shared\n", PlanCompiler.selectorReport(Result.class));
+    }
+
+    @Test
+    public void sameMapping() {
+
+        mapper.setUseDocumentIndex(false);
+        Result batched = mapper.map(document, Result.class);
+
+        mapper.setUseDocumentIndex(true);
+        Result indexed = mapper.map(document, Result.class);
+
+        Assert.assertEquals("Title", batched.getTitle());
+        Assert.assertEquals("1", batched.getX());
+        Assert.assertEquals(Arrays.asList("1", "2"), batched.getParagraphs());
+        Assert.assertEquals("b", batched.getSecond());
+        Assert.assertEquals("a", batched.getData());
+        Assert.assertEquals("b", batched.getUpper());
+        Assert.assertEquals("s", batched.getSpan());
+        Assert.assertEquals(2, batched.getBoth().size());
+
+        Assert.assertEquals(batched, indexed);
+    }
+
+    @Data
+    public static class Product {
+
+        @Text(select = "#main > section.product h2", first = true)
+        public String name;
+
+        @Text(select = ".price", first = true)
+        public String price;
+
+        @Attr(select = ".price", value = "data-cents", first = true)
+        public int cents;
+
+        @Text(select = "#main > section.product ul li")
+        public List<String> tags;
+
+        @Text(select = "#main > section.product ul > li:eq(0)")
+        public List<String> firstTags;
+
+    }
+
+    @Data
+    public static class Result {
+
+        @Text(select = "#main h1")
+        public String title;
+
+        @Text(select = ".box > .x")
+        public String x;
+
+        @Text(select = "div p")
+        public List<String> paragraphs;
+
+        @Text(select = "li", index = 2)
+        public String second;
+
+        @Attr(select = "[data-x]", value = "data-x")
+        public String data;
+
+        @Text(select = ".x", last = true)
+        public String upper;
+
+        @Select("span")
+        public Elements span;
+
+        @Select("h1, [data-x]")
+        public Elements both;
+
+        public String getSpan() {
+            return span.text();
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package estivate.plan;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.core.Selectors;
+import estivate.core.eval.EstivateEvaluatorException;
+import estivate.core.eval.lang.SelectQueryEvaluator;
+
+public class SelectLimitTest {
+
+    private final Document document = Jsoup
+            .parse("<div id='a'><p>1</p><p>2</p><div id='b'><p>3</p></div></div><p>4</p>");
+
+    @Test
+    public void limited() {
+
+        Elements roots = new Elements(document);
+
+        Assert.assertEquals("1", select(roots, "p", 0, false, true, false).text());
+        Assert.assertEquals("4", select(roots, "p", 0, false, false, true).text());
+        Assert.assertEquals("3", select(roots, "p", 3, false, false, false).text());
+        Assert.assertEquals("1 2 3 4", select(roots, "p", 0, false, false, false).text());
+
+        Assert.assertEquals(2, SelectQueryEvaluator.select(roots, Selectors.compile("p"), 2).size());
+    }
+
+    @Test
+    public void multipleRoots() {
+
+        // #b is inside #a, its paragraph is kept once
+        Elements roots = document.select("div");
+
+        Assert.assertEquals("1 2 3", SelectQueryEvaluator.select(roots, Selectors.compile("p"), 10).text());
+        Assert.assertEquals("3", select(roots, "p", 0, false, false, true).text());
+    }
+
+    @Test
+    public void unique() {
+
+        Assert.assertEquals("3", select(document.select("#b"), "p", 0, true, false, false).text());
+
+        try {
+            select(new Elements(document), "p", 0, true, false, false);
+            Assert.fail();
+        } catch (EstivateEvaluatorException e) {
+            // every match is counted in the message
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("found 4"));
+        }
+    }
+
+    private Elements select(Elements roots, String query, int index, boolean unique, boolean first,
+            boolean last) {
+        return SelectQueryEvaluator.select(null, roots, Selectors.compile(query), query, index, unique, first,
+                last);
+    }
+
+}
@@ -0,0 +1,101 @@
+package estivate.plan;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.annotations.Attr;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import estivate.annotations.Title;
+import estivate.core.SelectionCache;
+import estivate.core.Selectors;
+import lombok.Data;
+
+public class SelectionCacheTest extends EstivateTest {
+
+    private final Document document = readDocument("/cache/u1.html");
+
+    @Test
+    public void cached() {
+
+        mapper.setSelectionCacheSize(100);
+
+        Page page = mapper.map(document, Page.class);
+
+        Assert.assertEquals("The page", page.getTitle());
+        Assert.assertEquals("The page", page.getHeader().getTitle());
+        Assert.assertEquals("12", page.getHeader().getPrice());
+        Assert.assertEquals(1200, page.getFooter().getCents());
+        Assert.assertEquals("Mug", page.getFooter().getName());
+
+        // title, then the header batch, found again by the footer
+        SelectionCache.Stats stats = mapper.getSelectionCacheStats();
+        Assert.assertTrue(stats.toString(), stats.getHits() >= 2);
+        Assert.assertTrue(stats.getHitRatio() > 0);
+
+        mapper.setSelectionCacheSize(0);
+        Assert.assertEquals(page, mapper.map(document, Page.class));
+    }
+
+    @Test
+    public void bounded() {
+
+        SelectionCache.Stats stats = new SelectionCache.Stats();
+        SelectionCache cache = new SelectionCache(1, stats);
+
+        cache.put(document, Selectors.compile("p"), new Elements());
+        cache.put(document, Selectors.compile("h1"), new Elements());
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNull(cache.get(document, Selectors.compile("p")));
+        Assert.assertNotNull(cache.get(document, Selectors.compile("h1")));
+        Assert.assertNull(cache.get(document.body(), Selectors.compile("h1")));
+
+        Assert.assertEquals(1, stats.getHits());
+        Assert.assertEquals(2, stats.getMisses());
+        Assert.assertEquals(1, stats.getEvictions());
+    }
+
+    @Data
+    public static class Page {
+
+        @Title
+        public String title;
+
+        @Select("body")
+        public Header header;
+
+        @Select("body")
+        public Footer footer;
+
+    }
+
+    @Data
+    public static class Header {
+
+        @Title
+        public String title;
+
+        @Text(select = ".price")
+        public String price;
+
+        @Text(select = "h1")
+        public String name;
+
+    }
+
+    @Data
+    public static class Footer {
+
+        @Attr(select = ".price", value = "data-cents")
+        public int cents;
+
+        @Text(select = "h1")
+        public String name;
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package estivate.plan;
+
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import estivate.EstivateTest;
+import estivate.MappingError;
+import estivate.MappingResult;
+import estivate.annotations.Select;
+import estivate.annotations.Text;
+import lombok.Data;
+
+public class TryMapTest extends EstivateTest {
+
+    private final Document document = readDocument("/tryMap/u1.html");
+
+    @Test
+    public void errors() {
+
+        MappingResult<Product> result = mapper.tryMap(document, Product.class);
+
+        Assert.assertFalse(result.isSuccess());
+
+        // mapping went on after the failures
+        Product product = result.getValue();
+        Assert.assertEquals("Mug", product.getName());
+        Assert.assertEquals(0, product.getPrice());
+        Assert.assertEquals(2, product.getOffers().size());
+        Assert.assertEquals(12, product.getOffers().get(0).getPrice());
+        Assert.assertEquals("Mug", product.getTitle());
+
+        List<MappingError> errors = result.getErrors();
+        Assert.assertEquals(errors.toString(), 2, errors.size());
+
+        Assert.assertEquals("price", errors.get(0).getMemberPath());
+        Assert.assertEquals("body > .price", errors.get(0).getSelector());
+        Assert.assertTrue(errors.get(0).getReason(), errors.get(0).getReason().contains("cheap"));
+
+        Assert.assertEquals("offers[1].price", errors.get(1).getMemberPath());
+        Assert.assertEquals(".price", errors.get(1).getSelector());
+    }
+
+    @Test
+    public void success() {
+
+        MappingResult<List<Offer>> result = mapper.tryMapToList(readDocument("/tryMap/u2.html"), Offer.class);
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(3, result.getValue().get(0).getPrice());
+    }
+
+    @Data
+    public static class Product {
+
+        @Text(select = "h1")
+        public String name;
+
+        @Text(select = "body > .price")
+        public int price;
+
+        @Select(".offer")
+        public List<Offer> offers;
+
+        @Text(select = "h1")
+        public String title;
+
+    }
+
+    @Data
+    @Select(".offer")
+    public static class Offer {
+
+        @Text(select = ".price")
+        public int price;
+
+    }
+
+}
@@ -1,21 +0,0 @@
-package estivate.core.eval;
-
-import estivate.core.eval.EstivateEvaluator.EvalContext;
-import lombok.Getter;
-
-@SuppressWarnings("serial")
-public class EstivateEvaluatorException extends RuntimeException {
-
-    @Getter
-    private EvalContext context;
-
-    public EstivateEvaluatorException(String message) {
-        super(message);
-    }
-
-    public EstivateEvaluatorException(EvalContext context, String message) {
-        super(message);
-        this.context = context.toBuilder().build();
-    }
-
-}